@@ -0,0 +1,62 @@
+package bricker.components;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * package-private. Integrates the entries of a store as many slots at a time as the CPU's
+ * widest float vectors hold (8 with AVX2, 16 with AVX-512), with the incubating Vector API.
+ * The branches of the scalar integration become masks, so every lane gets the same
+ * operations, in the same order, as {@link ScalarIntegrator} would apply to its slot; the
+ * slots left over at the end are handed to a ScalarIntegrator.
+ * <p>
+ * Only loaded by {@link TransformStore}, by name, when the vectorized integration is turned
+ * on, so that nothing fails when the jdk.incubator.vector module isn't added.
+ */
+class VectorIntegrator implements TransformIntegrator {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    private final ScalarIntegrator tail = new ScalarIntegrator();
+
+    @Override
+    public void integrate(TransformStore store, int start, int end, float deltaTime) {
+        float[] x = store.x, y = store.y;
+        float[] velocityX = store.velocityX, velocityY = store.velocityY;
+        float[] velocityToApplyX = store.velocityToApplyX;
+        float[] velocityToApplyY = store.velocityToApplyY;
+        float[] accelerationX = store.accelerationX, accelerationY = store.accelerationY;
+        boolean[] isAccelerationEnabled = store.isAccelerationEnabled;
+        int vectorEnd = start + SPECIES.loopBound(end - start);
+        for (int slot = start; slot < vectorEnd; slot += SPECIES.length()) {
+            FloatVector newVelocityX = FloatVector.fromArray(SPECIES, velocityX, slot);
+            FloatVector newVelocityY = FloatVector.fromArray(SPECIES, velocityY, slot);
+            FloatVector applyX = FloatVector.fromArray(SPECIES, velocityToApplyX, slot);
+            FloatVector applyY = FloatVector.fromArray(SPECIES, velocityToApplyY, slot);
+            FloatVector slotAccelerationX = FloatVector.fromArray(SPECIES, accelerationX, slot);
+            FloatVector slotAccelerationY = FloatVector.fromArray(SPECIES, accelerationY, slot);
+            VectorMask<Float> isAccelerating = slotAccelerationX.compare(VectorOperators.NE, 0)
+                    .or(slotAccelerationY.compare(VectorOperators.NE, 0))
+                    .and(VectorMask.fromArray(SPECIES, isAccelerationEnabled, slot));
+            newVelocityX = newVelocityX.add(slotAccelerationX.mul(deltaTime), isAccelerating);
+            newVelocityY = newVelocityY.add(slotAccelerationY.mul(deltaTime), isAccelerating);
+            newVelocityX.intoArray(velocityX, slot);
+            newVelocityY.intoArray(velocityY, slot);
+            applyX = applyX.add(newVelocityX, isAccelerating).mul(0.5f, isAccelerating);
+            applyY = applyY.add(newVelocityY, isAccelerating).mul(0.5f, isAccelerating);
+            VectorMask<Float> isMoving = applyX.compare(VectorOperators.NE, 0)
+                    .or(applyY.compare(VectorOperators.NE, 0));
+            FloatVector.fromArray(SPECIES, x, slot)
+                    .add(applyX.mul(deltaTime), isMoving).intoArray(x, slot);
+            FloatVector.fromArray(SPECIES, y, slot)
+                    .add(applyY.mul(deltaTime), isMoving).intoArray(y, slot);
+            newVelocityX.intoArray(velocityToApplyX, slot);
+            newVelocityY.intoArray(velocityToApplyY, slot);
+        }
+        Arrays.fill(isAccelerationEnabled, start, vectorEnd, true);
+        tail.integrate(store, vectorEnd, end, deltaTime);
+    }
+}
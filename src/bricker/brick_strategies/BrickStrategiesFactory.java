@@ -2,7 +2,10 @@ package bricker.brick_strategies;
 
 import java.util.Random;
 
+import bricker.collisions.GameObjectPool;
 import bricker.gameobjects.Brick;
+import bricker.gameobjects.FallingHeart;
+import bricker.gameobjects.Puck;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.gui.ImageReader;
@@ -37,7 +40,8 @@ public class BrickStrategiesFactory {
     private int doublesAllowed;
     private final Brick[][] brickGrid;
     private final Counter lifeCounter;
-    private final GameObject mainPaddle;
+    private final GameObjectPool<FallingHeart> heartPool;
+    private final GameObjectPool<Puck> puckPool;
     /**
      * Constructor for the factory
      * @param gameObjectCollection list of objects in the game
@@ -69,7 +73,10 @@ public class BrickStrategiesFactory {
         this.windowDimensions = windowDimensions;
         this.extraPaddleCounter = new Counter(0);
         this.lifeCounter = lifeCounter;
-        this.mainPaddle = mainPaddle;
+        this.heartPool = NewLifeStrategy.createHeartPool(
+                gameObjectCollection, imageReader, lifeCounter, mainPaddle, windowDimensions);
+        this.puckPool = PucksStrategy.createPuckPool(
+                gameObjectCollection, imageReader, soundReader, windowDimensions);
         doublesCounter = 0;
     }
 
@@ -103,15 +110,15 @@ public class BrickStrategiesFactory {
         if (result < PROBABILITY_FOR_REGULAR) {
             return new BasicCollisionStrategy(gameObjects, brickCounter,brickGrid);
         } else if (result == PROBABILITY_FOR_PUCKS) {
-            return new PucksStrategy(gameObjects, brickCounter, imageReader, soundReader,brickGrid);
+            return new PucksStrategy(gameObjects, brickCounter, brickGrid, puckPool);
         } else if (result == PROBABILITY_FOR_NEW_PADDLE) {
             return new ExtraPaddleStrategy(gameObjects, brickCounter, imageReader,
                     windowDimensions, inputListener, extraPaddleCounter,brickGrid);
         } else if (result == PROBABILITY_FOR_EXPLOSION) {
             return new ExplosionStrategy(gameObjects, brickCounter, soundReader, brickGrid);
         } else if (result == PROBABILITY_FOR_NEW_LIFE) {
-            return new NewLifeStrategy(gameObjects, brickCounter, brickGrid, imageReader,
-                    lifeCounter, mainPaddle, windowDimensions);
+            return new NewLifeStrategy(gameObjects, brickCounter, brickGrid, lifeCounter,
+                    heartPool);
         }
         // else, result = 9, and we get a double behavior.
         doublesCounter++;
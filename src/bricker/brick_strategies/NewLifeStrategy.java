@@ -1,5 +1,7 @@
 package bricker.brick_strategies;
 
+import bricker.collisions.BrickerGameObjectCollection;
+import bricker.collisions.GameObjectPool;
 import bricker.gameobjects.Brick;
 import bricker.gameobjects.FallingHeart;
 import danogl.GameObject;
@@ -28,13 +30,11 @@ public class NewLifeStrategy implements CollisionStrategy {
     // Path to the heart image asset
     private static final String HEART_IMAGE_PATH = "assets/heart.png";
 
-    private final ImageReader imageReader;
     private final Brick[][] brickGrid;
     private final GameObjectCollection gameObjectCollection;
     private final Counter brickCounter;
     private final Counter lifeCounter;
-    private final GameObject mainPaddle;
-    private final Vector2 windowDimensions;
+    private final GameObjectPool<FallingHeart> heartPool;
 
     /**
      * Constructor for NewLifeStrategy.
@@ -42,25 +42,48 @@ public class NewLifeStrategy implements CollisionStrategy {
      * @param gameObjects      The global collection of game objects.
      * @param brickCounter     Counter tracking remaining bricks.
      * @param brickGrid        The 2D array representing the brick layout.
-     * @param imageReader      Reader to load the heart image.
      * @param lifeCounter      Global counter for player lives.
-     * @param mainPaddle       Reference to the main paddle (required for the heart's collision logic).
-     * @param windowDimensions The dimensions of the game window (required for the heart's boundary logic).
+     * @param heartPool        The hearts to drop, shared by all the strategies (see
+     *                         {@link #createHeartPool}).
      */
     public NewLifeStrategy(GameObjectCollection gameObjects,
                            Counter brickCounter,
                            Brick[][] brickGrid,
-                           ImageReader imageReader,
                            Counter lifeCounter,
-                           GameObject mainPaddle,
-                           Vector2 windowDimensions) {
-        this.imageReader = imageReader;
+                           GameObjectPool<FallingHeart> heartPool) {
         this.brickGrid = brickGrid;
         this.gameObjectCollection = gameObjects;
         this.brickCounter = brickCounter;
         this.lifeCounter = lifeCounter;
-        this.mainPaddle = mainPaddle;
-        this.windowDimensions = windowDimensions;
+        this.heartPool = heartPool;
+    }
+
+    /**
+     * Creates the pool of hearts the strategies drop. Collected and lost hearts are removed
+     * from the game, so if the collection is a BrickerGameObjectCollection, they go back to
+     * the pool and are reused for the next hearts.
+     *
+     * @param gameObjects      The global collection of game objects.
+     * @param imageReader      Reader to load the heart image.
+     * @param lifeCounter      Global counter for player lives.
+     * @param mainPaddle       Reference to the main paddle (required for the heart's collision logic).
+     * @param windowDimensions The dimensions of the game window (required for the heart's boundary logic).
+     * @return the pool.
+     */
+    public static GameObjectPool<FallingHeart> createHeartPool(GameObjectCollection gameObjects,
+                                                               ImageReader imageReader,
+                                                               Counter lifeCounter,
+                                                               GameObject mainPaddle,
+                                                               Vector2 windowDimensions) {
+        Renderable heartImage = imageReader.readImage(HEART_IMAGE_PATH, true);
+        GameObjectPool<FallingHeart> pool = new GameObjectPool<>(
+                () -> new FallingHeart(Vector2.ZERO, HEART_SIZE, heartImage, gameObjects,
+                        lifeCounter, mainPaddle, windowDimensions),
+                FallingHeart::startFalling);
+        if (gameObjects instanceof BrickerGameObjectCollection) {
+            ((BrickerGameObjectCollection) gameObjects).addPool(pool);
+        }
+        return pool;
     }
 
     /**
@@ -85,16 +108,8 @@ public class NewLifeStrategy implements CollisionStrategy {
                 Vector2 brickCenter = myBrick.getCenter();
                 Vector2 heartTopLeft = brickCenter.subtract(HEART_SIZE.mult(RELATIVE_POSITION_TO_BRICK));
 
-                Renderable heartImage = imageReader.readImage(HEART_IMAGE_PATH, true);
-                FallingHeart heart = new FallingHeart(
-                        heartTopLeft,
-                        HEART_SIZE,
-                        heartImage,
-                        gameObjectCollection,
-                        lifeCounter,
-                        mainPaddle,
-                        windowDimensions
-                );
+                FallingHeart heart = heartPool.acquire();
+                heart.setTopLeftCorner(heartTopLeft);
 
                 gameObjectCollection.addGameObject(heart);
             }
@@ -2,6 +2,8 @@ package bricker.brick_strategies;
 
 import java.util.Random;
 
+import bricker.collisions.BrickerGameObjectCollection;
+import bricker.collisions.GameObjectPool;
 import bricker.gameobjects.Brick;
 import bricker.main.Constants;
 import danogl.collisions.GameObjectCollection;
@@ -13,7 +15,7 @@ import danogl.gui.ImageReader;
 import danogl.gui.SoundReader;
 import danogl.util.Vector2;
 
-import bricker.gameobjects.Ball;
+import bricker.gameobjects.Puck;
 import danogl.GameObject;
 
 /**
@@ -25,9 +27,8 @@ public class PucksStrategy implements CollisionStrategy {
 
     private final GameObjectCollection gameObjectCollection;
     private final Counter brickCounter;
-    private final ImageReader imageReader;
-    private final SoundReader soundReader;
     private final Brick[][] brickGrid;
+    private final GameObjectPool<Puck> puckPool;
 
     private static final String PUCK_IMAGE_PATH = "assets/mockBall.png";
     private static final String BLOP_PATH = "assets/blop.wav";
@@ -39,18 +40,44 @@ public class PucksStrategy implements CollisionStrategy {
      * Constructor for the pucks strategy.
      * @param gameObjectCollection A list of the objects in the game.
      * @param brickCounter         number of bricks in the game.
-     * @param imageReader          An image reader to read the puck image.
-     * @param soundReader          A sound reader to read the puck collision sound.
+     * @param brickGrid            The 2D array representing the brick layout.
+     * @param puckPool             The pucks to release, shared by all the strategies (see
+     *                             {@link #createPuckPool}).
      */
     public PucksStrategy(GameObjectCollection gameObjectCollection,
                          Counter brickCounter,
-                         ImageReader imageReader,
-                         SoundReader soundReader, Brick[][] brickGrid) {
+                         Brick[][] brickGrid,
+                         GameObjectPool<Puck> puckPool) {
         this.gameObjectCollection = gameObjectCollection;
         this.brickCounter = brickCounter;
-        this.imageReader = imageReader;
-        this.soundReader = soundReader;
         this.brickGrid = brickGrid;
+        this.puckPool = puckPool;
+    }
+
+    /**
+     * Creates the pool of pucks the strategies release. Pucks remove themselves once they
+     * fall below the window, so if the collection is a BrickerGameObjectCollection, they go
+     * back to the pool and are reused for the next pucks.
+     * @param gameObjectCollection A list of the objects in the game.
+     * @param imageReader          An image reader to read the puck image.
+     * @param soundReader          A sound reader to read the puck collision sound.
+     * @param windowDimensions     The dimensions of the window, below which pucks are lost.
+     * @return the pool.
+     */
+    public static GameObjectPool<Puck> createPuckPool(GameObjectCollection gameObjectCollection,
+                                                      ImageReader imageReader,
+                                                      SoundReader soundReader,
+                                                      Vector2 windowDimensions) {
+        Renderable puckImage = imageReader.readImage(PUCK_IMAGE_PATH, true);
+        Sound collisionSound = soundReader.readSound(BLOP_PATH);
+        GameObjectPool<Puck> pool = new GameObjectPool<>(
+                () -> new Puck(Vector2.ZERO, new Vector2(PUCK_RADIUS, PUCK_RADIUS), puckImage,
+                        collisionSound, gameObjectCollection, windowDimensions),
+                null);
+        if (gameObjectCollection instanceof BrickerGameObjectCollection) {
+            ((BrickerGameObjectCollection) gameObjectCollection).addPool(pool);
+        }
+        return pool;
     }
 
     /**
@@ -72,15 +99,11 @@ public class PucksStrategy implements CollisionStrategy {
     }
 
     /*
-     * Creates the ball object for the game.
-     * Sets its visual representation, collision sound, initial position (centered),
-     * and randomized initial velocity direction.
+     * Takes a puck from the pool and adds it to the game, centered on the given location,
+     * with a randomized initial velocity direction.
      */
     private void createPuck(Vector2 location) {
-        Renderable ballImage = imageReader.readImage(PUCK_IMAGE_PATH, true);
-        Sound collisionSound = soundReader.readSound(BLOP_PATH);
-        Ball puck = new Ball(
-                Vector2.ZERO, new Vector2(PUCK_RADIUS, PUCK_RADIUS), ballImage, collisionSound);
+        Puck puck = puckPool.acquire();
 
         puck.setCenter(location);
         gameObjectCollection.addGameObject(puck);
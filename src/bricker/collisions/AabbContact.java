@@ -0,0 +1,272 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+import danogl.collisions.AABB.AABBCollider;
+import danogl.collisions.Collision;
+import danogl.collisions.PairCollisionData;
+import danogl.util.MutableVector2;
+import danogl.util.Vector2;
+
+import java.awt.geom.Rectangle2D;
+
+/**
+ * package-private. The collision data of two objects whose colliders are AABBs, made to be
+ * reused by {@link PooledAabbHandler}.
+ * The world-space boxes of the objects, their intersection and the normals of the pair are
+ * kept in one float array rather than in rectangles created by every computation, and the
+ * vectors handed out by the {@link Collision}s of the pair are owned by the contact. Once a
+ * contact is handed back to its pool, the Collisions it gave out may describe another pair.
+ * The same numbers can be computed into any array with {@link #readBox} and
+ * {@link #intersect}, without a contact (and on any thread), and later handed to a contact
+ * with {@link #setValues}.
+ * <p>
+ * The numbers computed are the same as those of the library's AABB collision data, including
+ * the order of the float and double operations. The only exception is the box of a swept
+ * object that was stopped short of its impact, which is read shifted by its
+ * {@link ImpactOffset} while the pairs of the impact are handled.
+ */
+class AabbContact extends PairCollisionData {
+    /**
+     * How many floats describe a pair: the boxes of the two objects (as x, y, width and
+     * height), their intersection (likewise) and the normal each object receives.
+     */
+    static final int VALUE_COUNT = 16;
+    private static final int FIRST_BOX = 0;
+    private static final int SECOND_BOX = 4;
+    private static final int INTERSECTION = 8;
+    private static final int NORMALS = 12;
+
+    private final float[] values = new float[VALUE_COUNT];
+    private boolean isIntersecting;
+    private boolean isUpToDate;
+    private final ImpactOffset impactOffset;
+
+    AabbContact(ImpactOffset impactOffset) {
+        super(null, null);
+        this.impactOffset = impactOffset;
+        collision1 = new Side(0);
+        collision2 = new Side(1);
+    }
+
+    /**
+     * Starts describing a new pair of objects.
+     */
+    void reset(GameObject go1, GameObject go2) {
+        setGameObject(0, go1);
+        setGameObject(1, go2);
+        onFrameStart();
+    }
+
+    @Override
+    public void onFrameStart() {
+        isUpToDate = false;
+        ((Side) collision1).onFrameStart();
+        ((Side) collision2).onFrameStart();
+    }
+
+    @Override
+    public boolean areColliding() {
+        update();
+        return isIntersecting;
+    }
+
+    /**
+     * Takes the numbers of the frame from an array filled by {@link #readBox} and
+     * {@link #intersect} for the contact's objects, in the same order, instead of computing
+     * them.
+     * @param source         The array.
+     * @param offset         Where the numbers of the pair start.
+     * @param isIntersecting What intersect returned.
+     */
+    void setValues(float[] source, int offset, boolean isIntersecting) {
+        System.arraycopy(source, offset, values, 0, VALUE_COUNT);
+        this.isIntersecting = isIntersecting;
+        isUpToDate = true;
+    }
+
+    /**
+     * Computes the boxes of the objects and their intersection, once a frame.
+     */
+    void update() {
+        if (isUpToDate) {
+            return;
+        }
+        GameObject go1 = getGameObject(0);
+        readBox(go1, values, FIRST_BOX);
+        values[FIRST_BOX] += impactOffset.x(go1);
+        values[FIRST_BOX + 1] += impactOffset.y(go1);
+        readSecondBox();
+        isIntersecting = intersect(values, 0);
+        isUpToDate = true;
+    }
+
+    /**
+     * Reads the world-space box of the second object from its AABB collider. A subclass whose
+     * second object has another collider overrides this, and may use the box of the first
+     * object, which is read first.
+     */
+    void readSecondBox() {
+        GameObject go2 = getGameObject(1);
+        readBox(go2, values, SECOND_BOX);
+        values[SECOND_BOX] += impactOffset.x(go2);
+        values[SECOND_BOX + 1] += impactOffset.y(go2);
+    }
+
+    /**
+     * Sets the world-space box of the second object. A box with no area never intersects.
+     */
+    final void setSecondBox(float x, float y, float width, float height) {
+        values[SECOND_BOX] = x;
+        values[SECOND_BOX + 1] = y;
+        values[SECOND_BOX + 2] = width;
+        values[SECOND_BOX + 3] = height;
+    }
+
+    final float firstMinX() {
+        return values[FIRST_BOX];
+    }
+
+    final float firstMinY() {
+        return values[FIRST_BOX + 1];
+    }
+
+    final float firstMaxX() {
+        return values[FIRST_BOX] + values[FIRST_BOX + 2];
+    }
+
+    final float firstMaxY() {
+        return values[FIRST_BOX + 1] + values[FIRST_BOX + 3];
+    }
+
+    /**
+     * Reads the world-space box of an object with an AABB collider into an array, as the
+     * first box of a pair (at offset) or as the second (at offset + 4).
+     */
+    static void readBox(GameObject obj, float[] target, int offset) {
+        Rectangle2D.Float rect = ((AABBCollider) obj.physics().collider()).getRectangle();
+        Vector2 corner = obj.getTopLeftCorner();
+        Vector2 dimensions = obj.getDimensions();
+        target[offset] = corner.x() + rect.x * dimensions.x();
+        target[offset + 1] = corner.y() + rect.y * dimensions.y();
+        target[offset + 2] = rect.width * dimensions.x();
+        target[offset + 3] = rect.height * dimensions.y();
+    }
+
+    /**
+     * Intersects the two boxes of a pair, and computes the normals the objects receive.
+     * As with Rectangle2D.intersects, only boxes that overlap with a positive area intersect;
+     * if they don't, the intersection and the normals are left as they were.
+     * @param values The array holding the boxes.
+     * @param offset Where the numbers of the pair start.
+     * @return true if the boxes intersect.
+     */
+    static boolean intersect(float[] values, int offset) {
+        float x1 = values[offset + FIRST_BOX], y1 = values[offset + FIRST_BOX + 1];
+        float width1 = values[offset + FIRST_BOX + 2], height1 = values[offset + FIRST_BOX + 3];
+        float x2 = values[offset + SECOND_BOX], y2 = values[offset + SECOND_BOX + 1];
+        float width2 = values[offset + SECOND_BOX + 2];
+        float height2 = values[offset + SECOND_BOX + 3];
+        if (width1 <= 0 || height1 <= 0 || width2 <= 0 || height2 <= 0
+                || !((double) x2 + width2 > x1 && (double) y2 + height2 > y1
+                && x2 < (double) x1 + width1 && y2 < (double) y1 + height1)) {
+            return false;
+        }
+        double minX = Math.max(x1, x2);
+        double minY = Math.max(y1, y2);
+        double maxX = Math.min((double) x1 + width1, (double) x2 + width2);
+        double maxY = Math.min((double) y1 + height1, (double) y2 + height2);
+        float intersectionX = (float) minX;
+        float intersectionY = (float) minY;
+        float intersectionWidth = (float) (maxX - minX);
+        float intersectionHeight = (float) (maxY - minY);
+        if (!(intersectionWidth > 0 && intersectionHeight > 0)) {
+            return false;
+        }
+        values[offset + INTERSECTION] = intersectionX;
+        values[offset + INTERSECTION + 1] = intersectionY;
+        values[offset + INTERSECTION + 2] = intersectionWidth;
+        values[offset + INTERSECTION + 3] = intersectionHeight;
+        double intersectionCenterX = intersectionX + intersectionWidth / 2.0;
+        double intersectionCenterY = intersectionY + intersectionHeight / 2.0;
+        writeNormal(values, offset + NORMALS,
+                (float) (x1 + width1 / 2.0 - intersectionCenterX),
+                (float) (y1 + height1 / 2.0 - intersectionCenterY));
+        writeNormal(values, offset + NORMALS + 2,
+                (float) (x2 + width2 / 2.0 - intersectionCenterX),
+                (float) (y2 + height2 / 2.0 - intersectionCenterY));
+        return true;
+    }
+
+    private static void writeNormal(float[] values, int offset, float x, float y) {
+        if (x == 0 && y == 0) {
+            values[offset] = 0;
+            values[offset + 1] = 0;
+        } else {
+            float factor = 1f / (float) Math.sqrt(x * x + y * y);
+            values[offset] = factor * x;
+            values[offset + 1] = factor * y;
+        }
+    }
+
+    /*
+     * The collision as one of the two objects receives it.
+     */
+    private class Side implements Collision {
+        private final int index;
+        private final MutableVector2 normal = new MutableVector2();
+        private final MutableVector2 collisionPoint = new MutableVector2();
+        private final MutableVector2 penetrationArea = new MutableVector2();
+        private final MutableVector2 relativeVelocity = new MutableVector2();
+        private boolean hasRelativeVelocity;
+
+        Side(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void onFrameStart() {
+            hasRelativeVelocity = false;
+        }
+
+        @Override
+        public Vector2 getNormal() {
+            update();
+            normal.setXY(values[NORMALS + 2 * index], values[NORMALS + 2 * index + 1]);
+            return normal;
+        }
+
+        @Override
+        public Vector2 getCollisionPoint() {
+            update();
+            collisionPoint.setXY(
+                    (float) (values[INTERSECTION] + values[INTERSECTION + 2] / 2.0),
+                    (float) (values[INTERSECTION + 1] + values[INTERSECTION + 3] / 2.0));
+            return collisionPoint;
+        }
+
+        @Override
+        public Vector2 getPenetrationArea() {
+            update();
+            penetrationArea.setXY(values[INTERSECTION + 2], values[INTERSECTION + 3]);
+            return penetrationArea;
+        }
+
+        @Override
+        public Vector2 getRelativeVelocity() {
+            if (hasRelativeVelocity) {
+                return relativeVelocity;
+            }
+            hasRelativeVelocity = true;
+            Side other = (Side) getCollision(1 - index);
+            if (other.hasRelativeVelocity) {
+                relativeVelocity.setXY(-other.relativeVelocity.x(), -other.relativeVelocity.y());
+                return relativeVelocity;
+            }
+            Vector2 myVelocity = getGameObject(index).getVelocity();
+            Vector2 otherVelocity = getGameObject(1 - index).getVelocity();
+            relativeVelocity.setXY(myVelocity.x() - otherVelocity.x(),
+                    myVelocity.y() - otherVelocity.y());
+            return relativeVelocity;
+        }
+    }
+}
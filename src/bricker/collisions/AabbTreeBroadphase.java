@@ -0,0 +1,98 @@
+package bricker.collisions;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A broadphase backed by a dynamic AABB tree.
+ * Proxies are inserted into the tree when they join the collection and removed when they
+ * leave it. Each frame only the leaves of proxies whose {@link CollisionProxy#version()}
+ * changed are looked at, a leaf is only re-inserted if its proxy has left its fat box, and
+ * every proxy queries the tree for the fat boxes overlapping its own. This finds the pairs
+ * in O(n log n) regardless of the sizes of the objects, which suits scenes that mix a
+ * full-screen background, thin walls, small balls and wide paddles.
+ */
+public class AabbTreeBroadphase implements Broadphase {
+    private static final int NO_LEAF = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final DynamicAabbTree tree;
+    private int[] leafById = new int[INITIAL_CAPACITY];
+    // the version of each proxy when its leaf was last updated
+    private int[] leafVersionById = new int[INITIAL_CAPACITY];
+    private final Consumer<CollisionProxy> pairReporter = this::reportPair;
+    private CollisionProxy queryingProxy;
+    private BiConsumer<CollisionProxy, CollisionProxy> pairHandler;
+
+    /**
+     * Constructor for the broadphase.
+     * @param margin How far (in pixels) a proxy can move before its leaf is re-inserted.
+     *               Larger margins mean fewer re-insertions but more candidate pairs.
+     */
+    public AabbTreeBroadphase(float margin) {
+        this.tree = new DynamicAabbTree(margin);
+        Arrays.fill(leafById, NO_LEAF);
+    }
+
+    @Override
+    public void proxyAdded(CollisionProxy proxy) {
+        ensureIdCapacity(proxy.id());
+        if (leafById[proxy.id()] == NO_LEAF) {
+            leafById[proxy.id()] = tree.insert(proxy);
+            leafVersionById[proxy.id()] = proxy.version();
+        }
+    }
+
+    @Override
+    public void proxyRemoved(CollisionProxy proxy) {
+        if (proxy.id() < leafById.length && leafById[proxy.id()] != NO_LEAF) {
+            tree.remove(leafById[proxy.id()]);
+            leafById[proxy.id()] = NO_LEAF;
+        }
+    }
+
+    @Override
+    public void findPairs(List<CollisionProxy> proxies,
+                          BiConsumer<CollisionProxy, CollisionProxy> pairHandler) {
+        for (CollisionProxy proxy : proxies) {
+            ensureIdCapacity(proxy.id());
+            if (leafById[proxy.id()] == NO_LEAF) {
+                proxyAdded(proxy);
+            } else if (leafVersionById[proxy.id()] != proxy.version()) {
+                tree.update(leafById[proxy.id()]);
+                leafVersionById[proxy.id()] = proxy.version();
+            }
+        }
+        this.pairHandler = pairHandler;
+        for (CollisionProxy proxy : proxies) {
+            int leaf = leafById[proxy.id()];
+            queryingProxy = proxy;
+            // fat boxes on both sides, so that a pair is found from both of its proxies
+            tree.query(tree.fatMinX(leaf), tree.fatMinY(leaf),
+                    tree.fatMaxX(leaf), tree.fatMaxY(leaf), pairReporter);
+        }
+        queryingProxy = null;
+        this.pairHandler = null;
+    }
+
+    /*
+     * Every pair is found twice, once from each proxy; only the proxy with the lower id
+     * reports it.
+     */
+    private void reportPair(CollisionProxy other) {
+        if (other.id() > queryingProxy.id()) {
+            pairHandler.accept(queryingProxy, other);
+        }
+    }
+
+    private void ensureIdCapacity(int id) {
+        if (id >= leafById.length) {
+            int oldLength = leafById.length;
+            leafById = Arrays.copyOf(leafById, Math.max(id + 1, oldLength * 2));
+            leafVersionById = Arrays.copyOf(leafVersionById, leafById.length);
+            Arrays.fill(leafById, oldLength, leafById.length, NO_LEAF);
+        }
+    }
+}
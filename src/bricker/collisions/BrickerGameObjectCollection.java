@@ -0,0 +1,974 @@
+package bricker.collisions;
+
+import bricker.components.TransformStore;
+import danogl.GameObject;
+import danogl.collisions.CollisionResolver;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.collisions.PairCollisionData;
+import danogl.collisions.PairCollisionHandler;
+import danogl.gui.MessageHandler;
+import danogl.util.Vector2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A GameObjectCollection with a pluggable broadphase.
+ * The collection of the library compares every object in a layer with every object of each
+ * layer it collides with, which is quadratic in the number of objects. This collection keeps
+ * a {@link CollisionProxy} for every object it holds, and lets a {@link Broadphase} choose
+ * which pairs of proxies are worth handling. The candidate pairs still go through
+ * {@link #handlePair(GameObject, GameObject)}, so the enter/stay/exit semantics don't change.
+ * The pairs that are colliding are remembered by the ids of their proxies rather than in the
+ * library's map of object pairs, so looking a pair up allocates nothing, and removing an
+ * object only costs as much as the number of objects it is colliding with. The collision data
+ * of pairs of AABB colliders is pooled, and reused once a pair stops colliding; a
+ * {@link danogl.collisions.Collision} received in a callback must therefore not be kept
+ * beyond the frame in which the pair's onCollisionExit was called.
+ * <p>
+ * Objects in static layers ({@link Layer#STATIC_OBJECTS} by default) are assumed never to
+ * move. They are kept out of the broadphase and put in a grid that is only rebuilt when
+ * static objects are added (removing one only clears its cells); each moving object looks
+ * up the static objects it overlaps in that grid. Static objects are therefore never paired
+ * with each other, and neither are two objects with immovable mass, so the cost of a frame
+ * depends on the number of moving objects rather than on the number of static ones. Objects
+ * in layers that collide with no layer at all (like the background) are not indexed for
+ * collisions at all.
+ * <p>
+ * Optionally, objects that stay idle for a number of frames are put to sleep (see
+ * {@link #setSleepDelay(int)}). Pairs of sleeping or static objects are skipped altogether:
+ * while both objects of a pair rest, they don't receive onCollisionStay.
+ * <p>
+ * Fast objects can be swept along their motion (see {@link #setContinuousCollisions}), so
+ * that they hit thin objects they would otherwise pass through within a single frame.
+ * <p>
+ * Besides AABBs, the collection handles grids of tiles ({@link TileMapCollider}): an object
+ * touching a grid is tested against the tiles under it, rather than against an object per
+ * tile.
+ * <p>
+ * Collision callbacks can be buffered and dispatched once detection is over (see
+ * {@link #setBufferedEvents}), so that detection never sees the collection change under it.
+ * <p>
+ * The collection also answers spatial queries (objects in a rectangle or under a point, the
+ * first object along a ray, the nearest object to a point) from a bounding volume hierarchy
+ * of all its objects. The hierarchy is only built once the first query is made, and brought
+ * up to date at most once per frame. Queries write their results into buffers supplied by
+ * the caller and don't allocate.
+ * <p>
+ * Without a broadphase (the default), the collection behaves exactly like the library's.
+ */
+public class BrickerGameObjectCollection extends GameObjectCollection {
+
+    private static final float STATIC_INDEX_CELL_SIZE = 64f;
+    // how far (in pixels) before its impact a swept object is stopped
+    private static final float IMPACT_GAP = 0.01f;
+    // how far (in pixels) past its impact the box of a stopped object is read for its contacts
+    private static final float IMPACT_DEPTH = 0.5f;
+    private static final int NO_VALUES = -1;
+
+    private final Map<GameObject, CollisionProxy> proxiesByObject = new IdentityHashMap<>();
+    // the proxies of each partition, changed while pending additions and removals are applied
+    private final IndexedList<CollisionProxy> dynamicProxies = new IndexedList<>();
+    private final IndexedList<CollisionProxy> staticProxies = new IndexedList<>();
+    // objects in layers that collide with nothing
+    private final IndexedList<CollisionProxy> inertProxies = new IndexedList<>();
+    private final LayerTable layerTable = new LayerTable();
+    private final Set<Integer> staticLayers = new HashSet<>();
+    private final StaticIndex staticIndex = new StaticIndex(STATIC_INDEX_CELL_SIZE);
+    private boolean isStaticIndexDirty;
+    private final List<CollisionProxy> pendingAdditions = new ArrayList<>();
+    private final List<GameObject> pendingRemovals = new ArrayList<>();
+    private final ImpactOffset impactOffset = new ImpactOffset();
+    private final PooledAabbHandler aabbHandler = new PooledAabbHandler(impactOffset);
+    private final TileMapPairCollisionHandler tileMapHandler =
+            new TileMapPairCollisionHandler(impactOffset);
+    private final ContactCache contacts = new ContactCache(this::retireContact);
+    private final ColliderDispatch colliderDispatch = new ColliderDispatch();
+    private final BiConsumer<CollisionProxy, CollisionProxy> candidateHandler =
+            this::handleBroadphaseCandidate;
+    private final Consumer<CollisionProxy> staticCandidateHandler = this::handleStaticCandidate;
+    private CollisionProxy queryingProxy;
+    private final SpatialQueries queries =
+            new SpatialQueries(proxiesByObject.values(), dynamicProxies, inertProxies);
+    private int[] freeIds = new int[16];
+    private int freeIdCount;
+    private int nextId;
+    private int frame;
+    private int sleepDelay;
+    private boolean isContinuous;
+    private float deltaTime;
+    // pairs of a swept proxy and an unswept one, handled once the impacts are known
+    private final List<CollisionProxy> sweptProxies = new ArrayList<>();
+    private CollisionProxy[] deferredSwept = new CollisionProxy[16];
+    private CollisionProxy[] deferredOther = new CollisionProxy[16];
+    private int deferredCount;
+    private boolean isParallel;
+    private boolean isCollectingCandidates;
+    // the candidate pairs of the frame, while the narrowphase runs in parallel
+    private final CandidateBatch candidates = new CandidateBatch(contacts);
+    // while a tested candidate is dispatched: where its values start, and whether it intersects
+    private int precomputedOffset = NO_VALUES;
+    private boolean isPrecomputedIntersecting;
+    private final CollisionEventDispatcher events = new CollisionEventDispatcher();
+    private final PoolRegistry pools = new PoolRegistry();
+    private final List<TransformStore> transformStores = new ArrayList<>();
+    // null while metrics are off
+    private CollisionMetrics metrics;
+    private Broadphase broadphase;
+
+    /**
+     * Constructor for the collection.
+     * @param messages Used by the library to report errors (e.g., adding null).
+     */
+    public BrickerGameObjectCollection(MessageHandler messages) {
+        super(messages);
+        staticLayers.add(Layer.STATIC_OBJECTS);
+        colliderDispatch.register(aabbHandler);
+        super.registerPairCollisionHandler(tileMapHandler);
+        colliderDispatch.register(tileMapHandler);
+    }
+
+    /**
+     * Sets the broadphase used to find candidate pairs, for example a
+     * {@link SpatialHashBroadphase}, a {@link SweepAndPruneBroadphase} or an
+     * {@link AabbTreeBroadphase}.
+     * @param broadphase The broadphase to use, or null to go back to the library's
+     *                   compare-everything loop.
+     */
+    public void setBroadphase(Broadphase broadphase) {
+        if (this.broadphase != null) {
+            for (CollisionProxy proxy : dynamicProxies) {
+                this.broadphase.proxyRemoved(proxy);
+            }
+        }
+        this.broadphase = broadphase;
+        if (broadphase != null) {
+            for (CollisionProxy proxy : dynamicProxies) {
+                proxy.refreshBounds();
+                broadphase.proxyAdded(proxy);
+            }
+        }
+    }
+
+    /**
+     * Sets after how many idle frames an object is put to sleep. An object is idle while its
+     * bounding box, velocity and acceleration stay exactly the same. Sleeping objects are not
+     * checked against static objects or against each other; they wake up as soon as anything
+     * about them changes, or when an awake object starts colliding with them.
+     * Sleeping only applies while a broadphase is set.
+     * @param frames The number of idle frames, or 0 (the default) to never put objects to sleep.
+     * @throws IllegalArgumentException if frames is negative.
+     */
+    public void setSleepDelay(int frames) {
+        if (frames < 0) {
+            throw new IllegalArgumentException("The sleep delay can't be negative: " + frames);
+        }
+        sleepDelay = frames;
+        if (frames == 0) {
+            for (CollisionProxy proxy : dynamicProxies) {
+                proxy.wake();
+            }
+        }
+    }
+
+    /**
+     * Sets whether fast objects are swept along their motion. An object that moved further
+     * than its own width or height since the previous frame is checked against everything
+     * it passed on the way; objects that were moved further than their speed allows are
+     * considered placed, not swept. If it hit something, it is moved back to just before its
+     * first impact, and its pairs are handled as if it were slightly into what it hit, so it
+     * gets the usual callbacks without being left inside a thin object (which the next
+     * frame's motion could carry it through). Sensors don't stop swept objects. This lets
+     * games run at a low framerate without fast balls passing through thin bricks. AABB and
+     * tile map contacts see the impact; pairs with other colliders are only handled where
+     * the object was stopped. Only applies while a broadphase is set.
+     * @param isContinuous true to sweep fast objects; false (the default) to only look at
+     *                     where objects are at the end of the frame.
+     */
+    public void setContinuousCollisions(boolean isContinuous) {
+        this.isContinuous = isContinuous;
+    }
+
+    /**
+     * Sets whether the narrowphase may run on several threads. The candidate pairs of the
+     * frame are collected first, and the collision data of every pair of two AABBs (their
+     * intersection and normals) is computed on the common ForkJoin pool. Only then are the
+     * pairs handled, one by one on the calling thread and always in the order they were
+     * found, with the data computed for them. Callbacks and the resolver therefore still run
+     * on the game thread, in the same order every time. Frames with few candidate pairs are
+     * not split between threads. Only applies while a broadphase is set.
+     * @param isParallel true to intersect candidate pairs in parallel.
+     */
+    public void setParallelNarrowphase(boolean isParallel) {
+        this.isParallel = isParallel;
+    }
+
+    /**
+     * Sets whether collision callbacks are called as pairs are found, like in the library, or
+     * only once all the collisions of the frame were found. Buffered events are written to a
+     * {@link CollisionEventBuffer} during detection, and afterwards dispatched in the same
+     * order to the objects' onCollisionEnter, onCollisionStay and onCollisionExit, and then
+     * to the listeners added with {@link #addCollisionEventListener}. Objects removed by
+     * callbacks are then no longer removed while other pairs are still being checked.
+     * The resolver still runs during detection, so Collisions may describe the objects before
+     * they were pushed apart.
+     * @param isBuffered true to dispatch the events of a frame after detection.
+     */
+    public void setBufferedEvents(boolean isBuffered) {
+        events.setBuffered(isBuffered);
+    }
+
+    /**
+     * Sets whether the collection counts what it does in every frame and times its phases.
+     * While metrics are off (the default), nothing is counted or timed.
+     * @param isEnabled true to keep metrics.
+     */
+    public void setMetricsEnabled(boolean isEnabled) {
+        if (!isEnabled) {
+            metrics = null;
+        } else if (metrics == null) {
+            metrics = new CollisionMetrics();
+        }
+        events.setMetrics(metrics);
+    }
+
+    /**
+     * @return the metrics of the last frame, or null if metrics are off. The same object is
+     * updated every frame.
+     */
+    public CollisionMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Adds a listener that receives all the collision events of every frame at once.
+     * Listeners are only called while events are buffered.
+     * @param listener The listener to add.
+     */
+    public void addCollisionEventListener(CollisionEventListener listener) {
+        events.addListener(listener);
+    }
+
+    /**
+     * Removes a listener added with {@link #addCollisionEventListener}.
+     * @param listener The listener to remove.
+     * @return false if the listener wasn't added.
+     */
+    public boolean removeCollisionEventListener(CollisionEventListener listener) {
+        return events.removeListener(listener);
+    }
+
+    /**
+     * Adds a pool whose objects go back to it when they are removed from the collection.
+     * An object is released once its removal is applied (on the next call to
+     * {@link #update(float)}), when no callback of the frame can still be using it.
+     * @param pool The pool.
+     */
+    public void addPool(GameObjectPool<?> pool) {
+        pools.add(pool);
+    }
+
+    /**
+     * Adds a store whose entries are integrated on every call to {@link #update(float)}. The
+     * library calls it after the objects are updated and before collisions are looked for,
+     * so the {@link bricker.components.StoredGameObject}s of the store have copied their
+     * transforms into it, and are moved before the collisions of the frame.
+     * @param store The store.
+     */
+    public void addTransformStore(TransformStore store) {
+        if (!transformStores.contains(store)) {
+            transformStores.add(store);
+        }
+    }
+
+    /**
+     * Sets whether the objects of a layer are static. Static objects must not move (or be
+     * resized) while they are in the collection; they are indexed once instead of being
+     * checked every frame, and pairs of two static objects are never handled, even if their
+     * layers collide. Only {@link Layer#STATIC_OBJECTS} is static by default.
+     * @param layerId  The id of the layer.
+     * @param isStatic true if the objects of the layer never move.
+     */
+    public void setStaticLayer(int layerId, boolean isStatic) {
+        boolean changed = isStatic ? staticLayers.add(layerId) : staticLayers.remove(layerId);
+        if (changed) {
+            repartitionProxies();
+        }
+    }
+
+    /**
+     * Sets whether two layers should collide, both in the collection's {@link #layers()} and
+     * in the table of layer collisions the collection checks pairs against. Use this rather
+     * than layers().shouldLayersCollide once objects have been added to either layer, or the
+     * change might not be noticed.
+     * @param layer1Id      The id of the first layer.
+     * @param layer2Id      The id of the second layer.
+     * @param shouldCollide true if objects of the two layers should collide.
+     */
+    public void shouldLayersCollide(int layer1Id, int layer2Id, boolean shouldCollide) {
+        layers().shouldLayersCollide(layer1Id, layer2Id, shouldCollide);
+        int slot1 = layerTable.slotOf(layer1Id);
+        int slot2 = layerTable.slotOf(layer2Id);
+        if (slot1 != LayerTable.NO_SLOT && slot2 != LayerTable.NO_SLOT) {
+            layerTable.setCollision(slot1, slot2, shouldCollide);
+            repartitionProxies();
+        }
+    }
+
+    /**
+     * Finds the objects whose collider bounds overlap (or touch) a rectangle.
+     * Bounds are compared as they are, in each object's own coordinate space.
+     * @param topLeftCorner The top-left corner of the rectangle.
+     * @param dimensions    The width and height of the rectangle.
+     * @param results       Cleared, then filled with the objects found.
+     * @return the number of objects found.
+     */
+    public int queryRect(Vector2 topLeftCorner, Vector2 dimensions, List<GameObject> results) {
+        return queries.queryRect(topLeftCorner, dimensions, results);
+    }
+
+    /**
+     * Finds the objects whose collider bounds contain a point, for example to find what the
+     * mouse is over.
+     * @param point   The point, in the coordinate space of the objects looked for.
+     * @param results Cleared, then filled with the objects found.
+     * @return the number of objects found.
+     */
+    public int queryPoint(Vector2 point, List<GameObject> results) {
+        return queryRect(point, Vector2.ZERO, results);
+    }
+
+    /**
+     * Finds the first object a ray enters.
+     * @param origin      Where the ray starts. An object containing it is hit at distance 0.
+     * @param direction   The direction of the ray; doesn't have to be normalized.
+     * @param maxDistance How far the ray goes.
+     * @param filter      Only objects it accepts can be hit; null to accept all objects.
+     * @param hit         Filled with the object hit, the distance to it and the hit point.
+     * @return true if an object was hit. Otherwise, hit holds a null object.
+     * @throws IllegalArgumentException if direction is zero.
+     */
+    public boolean raycast(Vector2 origin, Vector2 direction, float maxDistance,
+                           Predicate<GameObject> filter, RaycastHit hit) {
+        return queries.raycast(origin, direction, maxDistance, filter, hit);
+    }
+
+    /**
+     * Finds the object whose collider bounds are nearest to a point.
+     * @param point  The point. Objects containing it are at distance 0.
+     * @param filter Only objects it accepts are considered; null to accept all objects.
+     * @return the nearest object, or null if the filter accepted none.
+     */
+    public GameObject nearest(Vector2 point, Predicate<GameObject> filter) {
+        return queries.nearest(point, filter);
+    }
+
+    /**
+     * Add the specified GameObject. Like in the library, the object is only added on the
+     * next call to {@link #update(float)}.
+     * @param obj     The GameObject to add.
+     * @param layerId The id of the layer to which obj should be added.
+     */
+    @Override
+    public void addGameObject(GameObject obj, int layerId) {
+        super.addGameObject(obj, layerId);
+        if (obj != null) {
+            pendingAdditions.add(new CollisionProxy(obj, layerId));
+        }
+    }
+
+    /**
+     * Remove the specified GameObject. Like in the library, the object is only removed on
+     * the next call to {@link #update(float)}.
+     * @param obj     The GameObject to remove.
+     * @param layerId id of the layer to remove object from
+     * @return false if the object does not exist in the collection, or it exists
+     * but is already queued for removal, true if removal was successful.
+     */
+    @Override
+    public boolean removeGameObject(GameObject obj, int layerId) {
+        boolean wasAnObjRemoved = super.removeGameObject(obj, layerId);
+        if (wasAnObjRemoved) {
+            pendingRemovals.add(obj);
+            // like the library, forget the object's collisions right away
+            CollisionProxy proxy = proxiesByObject.get(obj);
+            if (proxy != null) {
+                contacts.removeContactsOf(proxy);
+            }
+        }
+        return wasAnObjRemoved;
+    }
+
+    /**
+     * Register another implementation of PairCollisionHandler, which creates
+     * the collision data of two objects implementing {@link danogl.collisions.Collider}.
+     * For each pair of collider types, the first handler (in the order they were registered,
+     * starting with the AABB and tile map handlers) that supports the types is used, so
+     * registering more handlers doesn't make collision checks slower. Whether a handler
+     * supports a pair must only depend on the types of the colliders.
+     * @param pairCollisionHandler The handler to add.
+     */
+    @Override
+    public void registerPairCollisionHandler(PairCollisionHandler pairCollisionHandler) {
+        super.registerPairCollisionHandler(pairCollisionHandler);
+        if (pairCollisionHandler != null) {
+            colliderDispatch.register(pairCollisionHandler);
+        }
+    }
+
+    /**
+     * Applies the pending additions and removals, both to the layers and to the proxies,
+     * returns removed objects that came from an added pool to their pool, and integrates the
+     * added transform stores.
+     * @param deltaTime Time since last frame
+     */
+    @Override
+    public void update(float deltaTime) {
+        this.deltaTime = deltaTime;
+        queries.markStale();
+        super.update(deltaTime);
+        // additions first: an object added and removed in the same frame ends up removed
+        for (CollisionProxy proxy : pendingAdditions) {
+            registerProxy(proxy);
+        }
+        pendingAdditions.clear();
+        for (GameObject obj : pendingRemovals) {
+            unregisterProxy(obj);
+            pools.release(obj);
+        }
+        pendingRemovals.clear();
+        flushPartitions();
+        for (int i = 0; i < transformStores.size(); i++) {
+            transformStores.get(i).update(deltaTime);
+        }
+    }
+
+    /**
+     * Looks for collisions between the objects of the collection. If a broadphase is set,
+     * only the pairs it reports between moving objects, the pairs of moving and static
+     * objects found in the static index, and the pairs that were colliding on the previous
+     * frame are handled. Otherwise, the library's own loop is used. Buffered events are
+     * dispatched last.
+     */
+    @Override
+    public void handleCollisions() {
+        // the callbacks of the previous frame are done with the contacts that ended
+        aabbHandler.recycleRetired();
+        tileMapHandler.recycleRetired();
+        if (metrics != null) {
+            metrics.reset();
+        }
+        if (broadphase == null) {
+            long start = metrics != null ? System.nanoTime() : 0;
+            super.handleCollisions();
+            if (metrics != null) {
+                addPairNanos(System.nanoTime() - start);
+            }
+        } else {
+            handleProxyCollisions();
+        }
+        events.dispatchRecorded();
+    }
+
+    private void handleProxyCollisions() {
+        frame++;
+        long start = metrics != null ? System.nanoTime() : 0;
+        for (CollisionProxy proxy : dynamicProxies) {
+            proxy.refreshBounds();
+            if (sleepDelay > 0) {
+                proxy.updateSleep(sleepDelay);
+            }
+            if (isContinuous && !proxy.isAsleep() && proxy.sweepIfFast(deltaTime)) {
+                sweptProxies.add(proxy);
+            }
+        }
+        if (metrics != null) {
+            long boundsEnd = System.nanoTime();
+            metrics.addBoundsNanos(boundsEnd - start);
+            start = boundsEnd;
+        }
+        if (isStaticIndexDirty) {
+            rebuildStaticIndex();
+        }
+        isCollectingCandidates = isParallel;
+        broadphase.findPairs(dynamicProxies.asList(), candidateHandler);
+        for (CollisionProxy proxy : dynamicProxies) {
+            if (proxy.isAsleep()) {
+                continue;
+            }
+            queryingProxy = proxy;
+            staticIndex.query(proxy.minX(), proxy.minY(), proxy.maxX(), proxy.maxY(),
+                    staticCandidateHandler);
+        }
+        queryingProxy = null;
+        if (isCollectingCandidates) {
+            isCollectingCandidates = false;
+            handleCollectedCandidates();
+        }
+        if (!sweptProxies.isEmpty()) {
+            handleImpacts();
+        }
+        handleStaleContacts();
+        if (isContinuous) {
+            for (CollisionProxy proxy : dynamicProxies) {
+                proxy.recordEndOfFrame();
+            }
+        }
+        queries.markStale();
+        if (metrics != null) {
+            addPairNanos(System.nanoTime() - start);
+        }
+    }
+
+    // the time the resolver and callbacks took so far was measured on its own
+    private void addPairNanos(long detectionNanos) {
+        metrics.addPairNanos(detectionNanos - metrics.resolverNanos() - metrics.callbackNanos());
+    }
+
+    /*
+     * Computes the collision data of the collected pairs (on several threads if there are
+     * enough of them), then handles the pairs in the order they were collected, handing each
+     * pair of two AABBs the numbers computed for it. The resolver and the callbacks of the
+     * pairs handled first may move objects, so a pair whose objects moved since the numbers
+     * were computed is handled without them, and computes its own.
+     */
+    private void handleCollectedCandidates() {
+        candidates.test();
+        for (int i = 0; i < candidates.size(); i++) {
+            byte result = candidates.result(i);
+            if (result == CandidateBatch.UNTESTED) {
+                dispatchCandidate(candidates.first(i), candidates.second(i));
+            } else if (candidates.hasMoved(i)) {
+                // even a skipped pair may overlap now
+                dispatchCandidate(candidates.first(i), candidates.second(i));
+            } else if (result != CandidateBatch.SKIPPED) {
+                precomputedOffset = CandidateBatch.valueOffset(i);
+                isPrecomputedIntersecting = result == CandidateBatch.INTERSECTING;
+                dispatchCandidate(candidates.first(i), candidates.second(i));
+                precomputedOffset = NO_VALUES;
+            }
+        }
+        candidates.clear();
+    }
+
+    /*
+     * Static objects don't move, so their bounds are only read when the index is rebuilt.
+     */
+    private void rebuildStaticIndex() {
+        for (CollisionProxy proxy : staticProxies) {
+            proxy.refreshBounds();
+        }
+        staticIndex.build(staticProxies.asList());
+        isStaticIndexDirty = false;
+    }
+
+    /*
+     * Moves every swept object that hit something back to just before its earliest impact,
+     * and only then handles its pairs, so that it collides with the first thing in its way
+     * rather than with everything it passed. The pairs are handled with the object's box at
+     * its impact; the pairs were filtered when they were deferred.
+     */
+    private void handleImpacts() {
+        for (int i = 0; i < deferredCount; i++) {
+            if (!deferredOther[i].isSensor()) {
+                deferredSwept[i].recordImpact(deferredSwept[i].timeOfImpact(deferredOther[i]));
+            }
+        }
+        for (CollisionProxy proxy : sweptProxies) {
+            proxy.rewindToImpact(IMPACT_GAP, IMPACT_DEPTH);
+            proxy.refreshBounds();
+        }
+        sweptProxies.clear();
+        for (int i = 0; i < deferredCount; i++) {
+            CollisionProxy swept = deferredSwept[i];
+            if (swept.overlapsAtImpact(deferredOther[i])) {
+                impactOffset.set(swept.gameObject(), swept.impactOffsetX(), swept.impactOffsetY());
+                dispatchCandidate(swept, deferredOther[i]);
+                impactOffset.clear();
+            }
+            deferredSwept[i] = null;
+            deferredOther[i] = null;
+        }
+        deferredCount = 0;
+    }
+
+    private void deferPair(CollisionProxy swept, CollisionProxy other) {
+        if (deferredCount == deferredSwept.length) {
+            deferredSwept = Arrays.copyOf(deferredSwept, deferredCount * 2);
+            deferredOther = Arrays.copyOf(deferredOther, deferredCount * 2);
+        }
+        deferredSwept[deferredCount] = swept;
+        deferredOther[deferredCount] = other;
+        deferredCount++;
+    }
+
+    /*
+     * Pairs that collided on the previous frame must be handled even if the broadphase no
+     * longer reports them, otherwise their onCollisionExit would never be called.
+     */
+    private void handleStaleContacts() {
+        for (int contact = 0; contact < contacts.contactLimit(); contact++) {
+            if (!contacts.isLive(contact) || contacts.lastHandledFrame(contact) == frame
+                    || (contacts.proxy1(contact).isResting()
+                    && contacts.proxy2(contact).isResting())) {
+                continue;
+            }
+            contacts.setLastHandledFrame(contact, frame);
+            handleProxyPair(contacts.proxy1(contact), contacts.proxy2(contact), contact);
+        }
+    }
+
+    /**
+     * Calls any callbacks required on the objects (if any), and resolves collisions if
+     * needed using {@link #resolver}. Behaves like the library's handlePair, but keeps the
+     * pairs that are colliding in the collection's own contact cache. Pairs that the
+     * {@link CollisionFilter}s of the objects rule out are rejected before shouldCollideWith
+     * is called, and callbacks the classes of the objects don't override are not called.
+     * @param obj1 The first object.
+     * @param obj2 The second object.
+     * @return whether the pair collided or not.
+     */
+    @Override
+    protected boolean handlePair(GameObject obj1, GameObject obj2) {
+        CollisionProxy proxy1 = proxiesByObject.get(obj1);
+        CollisionProxy proxy2 = proxiesByObject.get(obj2);
+        if (metrics != null) {
+            metrics.countCandidate();
+        }
+        if (proxy1 == null || proxy2 == null) {
+            return super.handlePair(obj1, obj2);
+        }
+        if (!proxy1.canCollideWith(proxy2)) {
+            if (metrics != null) {
+                metrics.countFiltered();
+            }
+            return false;
+        }
+        return handleProxyPair(proxy1, proxy2, contacts.find(proxy1, proxy2));
+    }
+
+    /*
+     * The body of handlePair. The callbacks of a contact are always called in the order its
+     * objects had when it was created. All bookkeeping is done before the callbacks, which
+     * may remove objects (and with them, contacts).
+     */
+    private boolean handleProxyPair(CollisionProxy proxy1, CollisionProxy proxy2, int contact) {
+        GameObject obj1 = proxy1.gameObject();
+        GameObject obj2 = proxy2.gameObject();
+        if (!obj1.shouldCollideWith(obj2) || !obj2.shouldCollideWith(obj1)
+                || obj1.getCoordinateSpace() != obj2.getCoordinateSpace()) {
+            if (metrics != null) {
+                metrics.countFiltered();
+            }
+            return false;
+        }
+        if (metrics != null) {
+            metrics.countTest();
+        }
+        if (proxy1.isSensor() || proxy2.isSensor()) {
+            return handleSensorPair(proxy1, proxy2, contact);
+        }
+        if (contact != ContactCache.NONE) {
+            PairCollisionData data = contacts.data(contact);
+            GameObject first = data.getGameObject(0);
+            GameObject second = data.getGameObject(1);
+            CollisionProxy firstProxy = first == obj1 ? proxy1 : proxy2;
+            CollisionProxy secondProxy = first == obj1 ? proxy2 : proxy1;
+            data.onFrameStart();
+            if (precomputedOffset != NO_VALUES && first == obj1
+                    && data.getClass() == AabbContact.class) {
+                ((AabbContact) data).setValues(candidates.values(), precomputedOffset,
+                        isPrecomputedIntersecting);
+            }
+            if (!data.areColliding()) {
+                contacts.remove(contact);
+                if (metrics != null) {
+                    metrics.countEndedContact();
+                }
+                events.report(CollisionEventBuffer.EXIT, firstProxy, second, null);
+                events.report(CollisionEventBuffer.EXIT, secondProxy, first, null);
+                return false;
+            }
+            events.report(CollisionEventBuffer.STAY, firstProxy, second, data.getCollision(0));
+            events.report(CollisionEventBuffer.STAY, secondProxy, first, data.getCollision(1));
+            if (metrics != null) {
+                metrics.countPersistentContact();
+            }
+            if (mayResolve(first, second)) {
+                resolve(data);
+            }
+            return true;
+        }
+        PairCollisionData data;
+        if (precomputedOffset != NO_VALUES) {
+            // the AABB handler is registered first, so it would have been chosen anyway
+            data = isPrecomputedIntersecting
+                    ? aabbHandler.createContact(obj1, obj2, candidates.values(), precomputedOffset)
+                    : null;
+        } else {
+            data = colliderDispatch.computeCollisionData(
+                    obj1, proxy1.colliderType(colliderDispatch),
+                    obj2, proxy2.colliderType(colliderDispatch));
+        }
+        if (data == null) {
+            return false;
+        }
+        contacts.add(proxy1, proxy2, data, frame);
+        proxy1.wake();
+        proxy2.wake();
+        if (metrics != null) {
+            metrics.countNewContact();
+        }
+        // a handler may have created the data with the objects in the other order
+        GameObject first = data.getGameObject(0);
+        GameObject second = data.getGameObject(1);
+        CollisionProxy firstProxy = first == obj1 ? proxy1 : proxy2;
+        CollisionProxy secondProxy = first == obj1 ? proxy2 : proxy1;
+        events.report(CollisionEventBuffer.ENTER, firstProxy, second, data.getCollision(0));
+        events.report(CollisionEventBuffer.STAY, firstProxy, second, data.getCollision(0));
+        events.report(CollisionEventBuffer.ENTER, secondProxy, first, data.getCollision(1));
+        events.report(CollisionEventBuffer.STAY, secondProxy, first, data.getCollision(1));
+        return true;
+    }
+
+    /*
+     * A pair with a sensor only needs to know whether the boxes overlap. Its contact has no
+     * collision data, and only the sensors hear about the start and the end of the overlap.
+     */
+    private boolean handleSensorPair(CollisionProxy proxy1, CollisionProxy proxy2, int contact) {
+        boolean isOverlapping = proxy1.intersectsNow(proxy2);
+        if (contact != ContactCache.NONE) {
+            if (!isOverlapping) {
+                // the proxies of a contact are kept in the order they had when it was made
+                CollisionProxy first = contacts.proxy1(contact);
+                CollisionProxy second = contacts.proxy2(contact);
+                contacts.remove(contact);
+                if (metrics != null) {
+                    metrics.countEndedContact();
+                }
+                events.reportToSensors(CollisionEventBuffer.EXIT, first, second);
+            } else if (metrics != null) {
+                metrics.countPersistentContact();
+            }
+            return isOverlapping;
+        }
+        if (!isOverlapping) {
+            return false;
+        }
+        contacts.add(proxy1, proxy2, null, frame);
+        proxy1.wake();
+        proxy2.wake();
+        if (metrics != null) {
+            metrics.countNewContact();
+        }
+        events.reportToSensors(CollisionEventBuffer.ENTER, proxy1, proxy2);
+        return true;
+    }
+
+    // hands the data of an ended contact back to the handler that made it
+    private void retireContact(PairCollisionData data) {
+        aabbHandler.retire(data);
+        tileMapHandler.retire(data);
+    }
+
+    private void resolve(PairCollisionData data) {
+        GameObject first = data.getGameObject(0);
+        GameObject second = data.getGameObject(1);
+        if (metrics == null) {
+            resolver.resolve(first, data.getCollision(0), second, data.getCollision(1));
+            return;
+        }
+        long start = System.nanoTime();
+        resolver.resolve(first, data.getCollision(0), second, data.getCollision(1));
+        metrics.addResolverNanos(System.nanoTime() - start);
+    }
+
+    /*
+     * The library's resolver does nothing unless both objects prevent intersections, so it
+     * isn't called for other pairs. Other resolvers are always called.
+     */
+    private boolean mayResolve(GameObject first, GameObject second) {
+        if (resolver == null) {
+            return false;
+        }
+        return resolver.getClass() != CollisionResolver.class
+                || (first.physics().directionFromWhichIntersectionsArePrevented() != null
+                && second.physics().directionFromWhichIntersectionsArePrevented() != null);
+    }
+
+    private void handleBroadphaseCandidate(CollisionProxy proxy1, CollisionProxy proxy2) {
+        if (metrics != null) {
+            metrics.countCandidate();
+        }
+        handleCandidate(proxy1, proxy2);
+    }
+
+    private void handleStaticCandidate(CollisionProxy staticProxy) {
+        if (metrics != null) {
+            metrics.countCandidate();
+        }
+        handleCandidate(queryingProxy, staticProxy);
+    }
+
+    private void handleCandidate(CollisionProxy proxy1, CollisionProxy proxy2) {
+        if (!proxy1.canCollideWith(proxy2) || !doLayersCollide(proxy1, proxy2)) {
+            if (metrics != null) {
+                metrics.countFiltered();
+            }
+            return;
+        }
+        if ((proxy1.isResting() && proxy2.isResting()) || !proxy1.overlaps(proxy2)
+                || (proxy1.isImmovable() && proxy2.isImmovable())) {
+            return;
+        }
+        // pairs of two swept objects are handled where the objects ended up
+        if (proxy1.isSwept() != proxy2.isSwept()) {
+            deferPair(proxy1.isSwept() ? proxy1 : proxy2, proxy1.isSwept() ? proxy2 : proxy1);
+            return;
+        }
+        if (isCollectingCandidates) {
+            candidates.add(proxy1, proxy2);
+        } else {
+            dispatchCandidate(proxy1, proxy2);
+        }
+    }
+
+    private void dispatchCandidate(CollisionProxy proxy1, CollisionProxy proxy2) {
+        // a pair is always handled in id order, so that its callbacks come in the same order
+        if (proxy1.id() > proxy2.id()) {
+            CollisionProxy swapped = proxy1;
+            proxy1 = proxy2;
+            proxy2 = swapped;
+        }
+        int contact = contacts.find(proxy1, proxy2);
+        if (contact != ContactCache.NONE) {
+            if (contacts.lastHandledFrame(contact) == frame) {
+                return;
+            }
+            contacts.setLastHandledFrame(contact, frame);
+        }
+        handleProxyPair(proxy1, proxy2, contact);
+    }
+
+    // layers the table has no room for are looked up in the LayerManager
+    private boolean doLayersCollide(CollisionProxy proxy1, CollisionProxy proxy2) {
+        if (proxy1.layerSlot() == LayerTable.NO_SLOT || proxy2.layerSlot() == LayerTable.NO_SLOT) {
+            return layers().doLayersCollide(proxy1.layerId(), proxy2.layerId());
+        }
+        return layerTable.doSlotsCollide(proxy1.layerSlot(), proxy2.layerSlot());
+    }
+
+    private void registerProxy(CollisionProxy proxy) {
+        if (proxiesByObject.containsKey(proxy.gameObject())) {
+            return;
+        }
+        proxy.setId(freeIdCount > 0 ? freeIds[--freeIdCount] : nextId++);
+        proxiesByObject.put(proxy.gameObject(), proxy);
+        queries.proxyAdded(proxy);
+        int slot = layerTable.slotOf(proxy.layerId());
+        if (slot == LayerTable.NO_SLOT) {
+            slot = layerTable.addLayer(proxy.layerId(), layers());
+            // layers that collided with nothing may collide with the new one
+            if (slot != LayerTable.NO_SLOT && layerTable.collidesWithAnything(slot)) {
+                // including the layers of proxies added earlier in this update
+                inertProxies.flushChanges();
+                if (inertProxies.size() > 0) {
+                    repartitionProxies();
+                }
+            }
+        }
+        proxy.setLayerSlot(slot);
+        addToPartition(proxy);
+    }
+
+    /*
+     * Puts a proxy in the static index, the broadphase, or neither if its layer collides
+     * with nothing.
+     */
+    private void addToPartition(CollisionProxy proxy) {
+        if (proxy.layerSlot() != LayerTable.NO_SLOT
+                && !layerTable.collidesWithAnything(proxy.layerSlot())) {
+            proxy.setStatic(false);
+            inertProxies.add(proxy);
+        } else if (staticLayers.contains(proxy.layerId())) {
+            proxy.setStatic(true);
+            staticProxies.add(proxy);
+            isStaticIndexDirty = true;
+        } else {
+            proxy.setStatic(false);
+            dynamicProxies.add(proxy);
+            if (broadphase != null) {
+                proxy.refreshBounds();
+                broadphase.proxyAdded(proxy);
+            }
+        }
+    }
+
+    private void removeFromPartition(CollisionProxy proxy) {
+        if (staticProxies.remove(proxy)) {
+            // a removal only rebuilds the index once half of it is holes
+            if (!isStaticIndexDirty && staticIndex.remove(proxy)) {
+                isStaticIndexDirty = true;
+            }
+        } else if (dynamicProxies.remove(proxy)) {
+            if (broadphase != null) {
+                broadphase.proxyRemoved(proxy);
+            }
+        } else {
+            inertProxies.remove(proxy);
+        }
+    }
+
+    /*
+     * Sorts all the proxies again, after the static layers or the layer collisions changed.
+     */
+    private void repartitionProxies() {
+        flushPartitions();
+        List<CollisionProxy> all = new ArrayList<>(proxiesByObject.size());
+        all.addAll(dynamicProxies.asList());
+        all.addAll(staticProxies.asList());
+        all.addAll(inertProxies.asList());
+        if (broadphase != null) {
+            for (CollisionProxy proxy : dynamicProxies) {
+                broadphase.proxyRemoved(proxy);
+            }
+        }
+        dynamicProxies.clear();
+        staticProxies.clear();
+        inertProxies.clear();
+        isStaticIndexDirty = true;
+        for (CollisionProxy proxy : all) {
+            addToPartition(proxy);
+        }
+        flushPartitions();
+    }
+
+    private void flushPartitions() {
+        dynamicProxies.flushChanges();
+        staticProxies.flushChanges();
+        inertProxies.flushChanges();
+    }
+
+    private void unregisterProxy(GameObject obj) {
+        CollisionProxy proxy = proxiesByObject.remove(obj);
+        if (proxy == null) {
+            return;
+        }
+        queries.proxyRemoved(proxy);
+        removeFromPartition(proxy);
+        contacts.removeContactsOf(proxy);
+        if (freeIdCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+        }
+        freeIds[freeIdCount++] = proxy.id();
+    }
+}
@@ -0,0 +1,36 @@
+package bricker.collisions;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * The first stage of collision detection: finds the pairs of objects that might be colliding,
+ * so that only those are passed on to the (much more expensive) pair handling of the
+ * collection. Implementations differ only in how they find the pairs.
+ */
+public interface Broadphase {
+    /**
+     * Called when an object joins the collection (when the collection's pending additions
+     * are applied), or for every existing object when the broadphase is set.
+     * Broadphases that keep their own index of the proxies can insert it here.
+     * @param proxy The new proxy. Its bounding box is up to date.
+     */
+    default void proxyAdded(CollisionProxy proxy) { }
+
+    /**
+     * Called when an object leaves the collection (when the collection's pending removals
+     * are applied), or for every object when the broadphase is replaced.
+     * @param proxy The removed proxy. Its id may be given to another proxy later.
+     */
+    default void proxyRemoved(CollisionProxy proxy) { }
+
+    /**
+     * Reports the candidate pairs of this frame.
+     * Every pair whose bounding boxes overlap must be reported exactly once. Pairs that don't
+     * overlap may be reported as well; they are filtered out by the collection.
+     * @param proxies     The proxies to look for pairs in. Their bounding boxes are up to date.
+     * @param pairHandler Receives the candidate pairs.
+     */
+    void findPairs(List<CollisionProxy> proxies,
+                   BiConsumer<CollisionProxy, CollisionProxy> pairHandler);
+}
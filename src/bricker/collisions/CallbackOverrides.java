@@ -0,0 +1,49 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+import danogl.collisions.Collision;
+
+/**
+ * package-private. Finds out which of the collision callbacks of GameObject a class overrides.
+ * GameObject's own callbacks do nothing, so calling them (and computing the Collisions passed
+ * to them) is wasted work. The answer is found by reflection once per class, and kept for as
+ * long as the class is loaded.
+ * <p>
+ * The callbacks are given as bits, one for every type of event of {@link CollisionEventBuffer}.
+ */
+final class CallbackOverrides {
+    private static final ClassValue<Integer> OVERRIDES = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            int overrides = 0;
+            if (isOverridden(type, "onCollisionEnter", GameObject.class, Collision.class)) {
+                overrides |= 1 << CollisionEventBuffer.ENTER;
+            }
+            if (isOverridden(type, "onCollisionStay", GameObject.class, Collision.class)) {
+                overrides |= 1 << CollisionEventBuffer.STAY;
+            }
+            if (isOverridden(type, "onCollisionExit", GameObject.class)) {
+                overrides |= 1 << CollisionEventBuffer.EXIT;
+            }
+            return overrides;
+        }
+    };
+
+    private CallbackOverrides() { }
+
+    /**
+     * @return the bits of the callbacks the class overrides.
+     */
+    static int of(Class<? extends GameObject> type) {
+        return OVERRIDES.get(type);
+    }
+
+    private static boolean isOverridden(Class<?> type, String name, Class<?>... parameters) {
+        try {
+            return type.getMethod(name, parameters).getDeclaringClass() != GameObject.class;
+        } catch (NoSuchMethodException | SecurityException e) {
+            // can't tell, so the callback has to be called
+            return true;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package bricker.collisions;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * package-private. The candidate pairs a {@link BrickerGameObjectCollection} collects in a
+ * frame while its narrowphase runs in parallel (see
+ * {@link BrickerGameObjectCollection#setParallelNarrowphase}).
+ * <p>
+ * Every candidate is kept in id order, with the versions its proxies had when it was
+ * collected. {@link #test()} then computes, on several threads if there are enough
+ * candidates, the boxes, intersection and normals of every pair of two AABBs, and what that
+ * means for the pair (see the CANDIDATE_ constants). Testing only reads the objects and the
+ * contacts; the collection handles the candidates afterwards, one by one, on its own thread.
+ */
+class CandidateBatch {
+    /**
+     * The boxes don't intersect and the pair wasn't colliding, so there is nothing to handle.
+     */
+    static final byte SKIPPED = 0;
+    /**
+     * A collider isn't an AABB; the pair is left to its handler.
+     */
+    static final byte UNTESTED = 1;
+    /**
+     * The boxes don't intersect, but the pair was colliding.
+     */
+    static final byte SEPARATE = 2;
+    /**
+     * The boxes intersect.
+     */
+    static final byte INTERSECTING = 3;
+
+    private static final int INITIAL_CAPACITY = 64;
+    // below this many candidate pairs, splitting the narrowphase between threads doesn't pay
+    private static final int PARALLEL_THRESHOLD = 2048;
+    private static final int MIN_CANDIDATES_PER_TASK = 512;
+    private static final int MAX_TASKS = 4 * (ForkJoinPool.getCommonPoolParallelism() + 1);
+
+    private final ContactCache contacts;
+    private CollisionProxy[] first = new CollisionProxy[INITIAL_CAPACITY];
+    private CollisionProxy[] second = new CollisionProxy[INITIAL_CAPACITY];
+    // two per candidate: the versions of its first and second proxy
+    private int[] versions = new int[INITIAL_CAPACITY * 2];
+    private byte[] results = new byte[INITIAL_CAPACITY];
+    private float[] values = new float[INITIAL_CAPACITY * AabbContact.VALUE_COUNT];
+    private int size;
+    private TestTask[] tasks = new TestTask[0];
+
+    /**
+     * Constructor for the batch.
+     * @param contacts The contacts of the collection, read to tell separate pairs that were
+     *                 colliding from those that weren't.
+     */
+    CandidateBatch(ContactCache contacts) {
+        this.contacts = contacts;
+    }
+
+    /**
+     * Collects a candidate pair, in id order.
+     */
+    void add(CollisionProxy proxy1, CollisionProxy proxy2) {
+        if (size == first.length) {
+            first = Arrays.copyOf(first, size * 2);
+            second = Arrays.copyOf(second, size * 2);
+            versions = Arrays.copyOf(versions, size * 2 * 2);
+            results = Arrays.copyOf(results, size * 2);
+            values = Arrays.copyOf(values, size * 2 * AabbContact.VALUE_COUNT);
+        }
+        // in the order the collection handles them, which the values must follow
+        boolean isSwapped = proxy1.id() > proxy2.id();
+        first[size] = isSwapped ? proxy2 : proxy1;
+        second[size] = isSwapped ? proxy1 : proxy2;
+        versions[size * 2] = first[size].version();
+        versions[size * 2 + 1] = second[size].version();
+        size++;
+    }
+
+    /**
+     * @return the number of candidates collected.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the proxy of a candidate with the smaller id.
+     */
+    CollisionProxy first(int candidate) {
+        return first[candidate];
+    }
+
+    /**
+     * @return the proxy of a candidate with the larger id.
+     */
+    CollisionProxy second(int candidate) {
+        return second[candidate];
+    }
+
+    /**
+     * @return what {@link #test()} found out about a candidate.
+     */
+    byte result(int candidate) {
+        return results[candidate];
+    }
+
+    /**
+     * @return the AabbContact values of all the candidates; those of a candidate start at
+     * {@link #valueOffset}. Only valid for tested candidates.
+     */
+    float[] values() {
+        return values;
+    }
+
+    /**
+     * @return where the AabbContact values of a candidate start in {@link #values()}.
+     */
+    static int valueOffset(int candidate) {
+        return candidate * AabbContact.VALUE_COUNT;
+    }
+
+    /**
+     * Whether either object of a candidate moved since it was collected, for example because
+     * the resolver or a callback of a pair handled earlier moved it. The proxies refresh
+     * their boxes to find out.
+     */
+    boolean hasMoved(int candidate) {
+        first[candidate].refreshMovedBounds();
+        second[candidate].refreshMovedBounds();
+        return first[candidate].version() != versions[candidate * 2]
+                || second[candidate].version() != versions[candidate * 2 + 1];
+    }
+
+    /**
+     * Tests every candidate, on several threads if there are enough of them.
+     */
+    void test() {
+        if (size >= PARALLEL_THRESHOLD) {
+            testInParallel();
+        } else {
+            test(0, size);
+        }
+    }
+
+    /**
+     * Forgets the candidates.
+     */
+    void clear() {
+        Arrays.fill(first, 0, size, null);
+        Arrays.fill(second, 0, size, null);
+        size = 0;
+    }
+
+    /*
+     * Splits the candidates between tasks that are kept from frame to frame. The calling
+     * thread tests the first share itself.
+     */
+    private void testInParallel() {
+        int taskCount = Math.min(size / MIN_CANDIDATES_PER_TASK, MAX_TASKS);
+        if (tasks.length < taskCount) {
+            int oldLength = tasks.length;
+            tasks = Arrays.copyOf(tasks, taskCount);
+            for (int i = oldLength; i < taskCount; i++) {
+                tasks[i] = new TestTask();
+            }
+        }
+        for (int i = 0; i < taskCount; i++) {
+            TestTask task = tasks[i];
+            task.reinitialize();
+            task.start = (int) ((long) size * i / taskCount);
+            task.end = (int) ((long) size * (i + 1) / taskCount);
+        }
+        for (int i = 1; i < taskCount; i++) {
+            tasks[i].fork();
+        }
+        tasks[0].invoke();
+        for (int i = 1; i < taskCount; i++) {
+            tasks[i].join();
+        }
+    }
+
+    /*
+     * Runs on any thread, and only reads the objects and the contacts.
+     */
+    private void test(int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!first[i].hasAabbCollider() || !second[i].hasAabbCollider()) {
+                results[i] = UNTESTED;
+                continue;
+            }
+            int offset = valueOffset(i);
+            AabbContact.readBox(first[i].gameObject(), values, offset);
+            AabbContact.readBox(second[i].gameObject(), values, offset + 4);
+            if (AabbContact.intersect(values, offset)) {
+                results[i] = INTERSECTING;
+            } else if (contacts.find(first[i], second[i]) != ContactCache.NONE) {
+                results[i] = SEPARATE;
+            } else {
+                results[i] = SKIPPED;
+            }
+        }
+    }
+
+    /*
+     * Tests a share of the candidates. Kept and reinitialized from frame to frame.
+     */
+    private final class TestTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private int start, end;
+
+        @Override
+        protected void compute() {
+            test(start, end);
+        }
+    }
+}
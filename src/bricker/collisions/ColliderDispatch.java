@@ -0,0 +1,114 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+import danogl.collisions.PairCollisionData;
+import danogl.collisions.PairCollisionHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * package-private. Chooses the PairCollisionHandler for a pair of objects by the types of
+ * their colliders.
+ * Every collider type is given a small ordinal, and the handler for each pair of ordinals is
+ * kept in a table. The table is filled lazily: the first pair of two types is offered to the
+ * handlers in the order they were registered (in both orders of the objects, if no handler
+ * supports the first one), and the answer is kept for all later pairs of the same types. As
+ * the library expects, a handler must support a pair according to the types of its colliders
+ * alone.
+ */
+class ColliderDispatch {
+    private static final byte UNKNOWN = 0;
+    private static final byte UNSUPPORTED = 1;
+    private static final byte SUPPORTED = 2;
+    private static final byte SUPPORTED_SWAPPED = 3;
+
+    private final List<PairCollisionHandler> handlers = new ArrayList<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private byte[][] support = new byte[0][];
+    private PairCollisionHandler[][] handlerTable = new PairCollisionHandler[0][];
+
+    /**
+     * Adds a handler, after those already added. Pairs of types no handler supported so far
+     * will be offered to it too.
+     * @return false if the handler was already added.
+     */
+    boolean register(PairCollisionHandler handler) {
+        if (handlers.contains(handler)) {
+            return false;
+        }
+        handlers.add(handler);
+        for (byte[] row : support) {
+            for (int column = 0; column < row.length; column++) {
+                if (row[column] == UNSUPPORTED) {
+                    row[column] = UNKNOWN;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the ordinal of a collider type, giving it one if it has none yet.
+     */
+    int ordinalOf(String colliderType) {
+        Integer ordinal = ordinals.get(colliderType);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        int newOrdinal = ordinals.size();
+        ordinals.put(colliderType, newOrdinal);
+        support = Arrays.copyOf(support, newOrdinal + 1);
+        handlerTable = Arrays.copyOf(handlerTable, newOrdinal + 1);
+        for (int row = 0; row <= newOrdinal; row++) {
+            support[row] = support[row] == null
+                    ? new byte[newOrdinal + 1] : Arrays.copyOf(support[row], newOrdinal + 1);
+            handlerTable[row] = handlerTable[row] == null
+                    ? new PairCollisionHandler[newOrdinal + 1]
+                    : Arrays.copyOf(handlerTable[row], newOrdinal + 1);
+        }
+        return newOrdinal;
+    }
+
+    /**
+     * Computes the collision data of two objects with the handler for their collider types.
+     * If the handler only supports the objects in the other order, the data is computed in
+     * that order.
+     * @return the collision data, or null if the objects don't collide or no handler
+     * supports them.
+     */
+    PairCollisionData computeCollisionData(GameObject obj1, int type1, GameObject obj2, int type2) {
+        if (support[type1][type2] == UNKNOWN) {
+            findHandler(obj1, type1, obj2, type2);
+        }
+        switch (support[type1][type2]) {
+            case SUPPORTED:
+                return handlerTable[type1][type2].computeCollisionData(obj1, obj2);
+            case SUPPORTED_SWAPPED:
+                return handlerTable[type1][type2].computeCollisionData(obj2, obj1);
+            default:
+                return null;
+        }
+    }
+
+    private void findHandler(GameObject obj1, int type1, GameObject obj2, int type2) {
+        for (PairCollisionHandler handler : handlers) {
+            if (handler.supportsPair(obj1, obj2)) {
+                handlerTable[type1][type2] = handler;
+                support[type1][type2] = SUPPORTED;
+                return;
+            }
+        }
+        for (PairCollisionHandler handler : handlers) {
+            if (handler.supportsPair(obj2, obj1)) {
+                handlerTable[type1][type2] = handler;
+                support[type1][type2] = SUPPORTED_SWAPPED;
+                return;
+            }
+        }
+        support[type1][type2] = UNSUPPORTED;
+    }
+}
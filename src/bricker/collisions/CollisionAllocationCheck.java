@@ -0,0 +1,148 @@
+package bricker.collisions;
+
+import bricker.gameobjects.TileMap;
+import danogl.GameObject;
+import danogl.collisions.Collision;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how many bytes {@link BrickerGameObjectCollection#handleCollisions()} allocates
+ * per frame, once a scene of moving boxes and a tile map is in a steady state. The collection
+ * has the game's settings: a spatial hash, sleeping objects, continuous collisions and
+ * buffered events. The boxes keep starting and ending contacts with each other and with the
+ * tiles, and read the Collisions they receive. Only the calls to handleCollisions are
+ * measured; moving the boxes and bouncing them off the window edges is not.
+ * <p>
+ * In a steady state nothing should be allocated: collision data comes from pools, and the
+ * buffers only grow until they are big enough. A few frames still allocate when the scene
+ * reaches a new peak of simultaneous contacts, which the pools and buffers grow to hold, so
+ * the check also reports how many frames allocated anything. The measurement needs a JVM
+ * whose thread bean counts allocated bytes (com.sun.management.ThreadMXBean, as in HotSpot).
+ * <p>
+ * Arguments (optional): the number of boxes (300 by default) and the number of frames to
+ * measure (2000 by default).
+ */
+public class CollisionAllocationCheck {
+    private static final float DELTA_TIME = 1 / 60f;
+    private static final int WARMUP_FRAMES = 2000;
+    private static final float WIDTH = 800;
+    private static final float HEIGHT = 600;
+    private static final float CELL_SIZE = 64;
+    private static final int SLEEP_DELAY_FRAMES = 30;
+    private static final int TILE_COLUMNS = 40;
+    private static final int TILE_ROWS = 30;
+    private static final long SEED = 1;
+
+    /**
+     * Runs the check.
+     * @param args The number of boxes and the number of frames, both optional.
+     */
+    public static void main(String[] args) {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            System.out.println("unavailable: this JVM doesn't count allocated bytes");
+            return;
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int boxCount = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        BrickerGameObjectCollection collection = new BrickerGameObjectCollection(null);
+        collection.setBroadphase(new SpatialHashBroadphase(CELL_SIZE));
+        collection.setSleepDelay(SLEEP_DELAY_FRAMES);
+        collection.setContinuousCollisions(true);
+        collection.setBufferedEvents(true);
+        List<GameObject> boxes = createScene(collection, boxCount);
+        long threadId = Thread.currentThread().getId();
+        long allocatedBytes = 0;
+        int allocatingFrames = 0;
+        for (int frame = 0; frame < WARMUP_FRAMES + frames; frame++) {
+            moveBoxes(boxes);
+            collection.update(DELTA_TIME);
+            long before = threads.getThreadAllocatedBytes(threadId);
+            collection.handleCollisions();
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+            if (frame >= WARMUP_FRAMES && allocated > 0) {
+                allocatedBytes += allocated;
+                allocatingFrames++;
+            }
+        }
+        System.out.printf("handleCollisions: %.2f bytes/frame over %d frames, "
+                        + "%d frames allocated anything%n",
+                allocatedBytes / (double) frames, frames, allocatingFrames);
+    }
+
+    /*
+     * Adds the boxes, moving in random directions, and a tile map whose solid tiles form
+     * scattered blocks the boxes pass over.
+     */
+    private static List<GameObject> createScene(BrickerGameObjectCollection collection,
+                                                int boxCount) {
+        Random random = new Random(SEED);
+        List<GameObject> boxes = new ArrayList<>();
+        for (int i = 0; i < boxCount; i++) {
+            GameObject box = new Box(
+                    new Vector2(random.nextFloat() * WIDTH, random.nextFloat() * HEIGHT),
+                    new Vector2(8 + random.nextFloat() * 24, 8 + random.nextFloat() * 24));
+            box.setVelocity(new Vector2(random.nextFloat() * 200 - 100,
+                    random.nextFloat() * 200 - 100));
+            collection.addGameObject(box);
+            boxes.add(box);
+        }
+        TileMap map = new TileMap(Vector2.ZERO,
+                new Vector2(WIDTH / TILE_COLUMNS, HEIGHT / TILE_ROWS),
+                TILE_COLUMNS, TILE_ROWS, new Renderable[] {null, null});
+        for (int row = 0; row < TILE_ROWS; row++) {
+            for (int column = 0; column < TILE_COLUMNS; column++) {
+                if (row % 6 < 2 && column % 8 < 3) {
+                    map.setTile(column, row, 1);
+                }
+            }
+        }
+        collection.addGameObject(map);
+        return boxes;
+    }
+
+    private static void moveBoxes(List<GameObject> boxes) {
+        for (int i = 0; i < boxes.size(); i++) {
+            GameObject box = boxes.get(i);
+            box.update(DELTA_TIME);
+            Vector2 corner = box.getTopLeftCorner();
+            Vector2 velocity = box.getVelocity();
+            if ((corner.x() < 0 && velocity.x() < 0)
+                    || (corner.x() > WIDTH && velocity.x() > 0)) {
+                box.setVelocity(new Vector2(-velocity.x(), velocity.y()));
+            }
+            if ((corner.y() < 0 && velocity.y() < 0)
+                    || (corner.y() > HEIGHT && velocity.y() > 0)) {
+                box.setVelocity(new Vector2(velocity.x(), -velocity.y()));
+            }
+        }
+    }
+
+    /*
+     * A box that reads every Collision it receives, as game objects do.
+     */
+    private static class Box extends GameObject {
+        private float normalSum;
+
+        Box(Vector2 topLeftCorner, Vector2 dimensions) {
+            super(topLeftCorner, dimensions, null);
+        }
+
+        @Override
+        public void onCollisionEnter(GameObject other, Collision collision) {
+            normalSum += collision.getNormal().x() + collision.getPenetrationArea().y();
+        }
+
+        @Override
+        public void onCollisionStay(GameObject other, Collision collision) {
+            normalSum += collision.getNormal().y();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+import danogl.collisions.Collision;
+
+import java.util.Arrays;
+
+/**
+ * The collision events of one frame, recorded while collisions are detected and dispatched
+ * once detection is over (see {@link BrickerGameObjectCollection#setBufferedEvents}).
+ * Every event is what one object would have received in a single callback: its type, the
+ * object receiving it, the other object, and the Collision (null for exit events). The events
+ * are stored in parallel arrays that are reused from frame to frame, and come in the order
+ * the callbacks would have been called in.
+ * <p>
+ * The buffer is only valid while it is being dispatched; listeners must not keep it.
+ */
+public class CollisionEventBuffer {
+    /**
+     * The type of events that would have been onCollisionEnter.
+     */
+    public static final int ENTER = 0;
+    /**
+     * The type of events that would have been onCollisionStay.
+     */
+    public static final int STAY = 1;
+    /**
+     * The type of events that would have been onCollisionExit.
+     */
+    public static final int EXIT = 2;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private GameObject[] gameObjects = new GameObject[INITIAL_CAPACITY];
+    private GameObject[] others = new GameObject[INITIAL_CAPACITY];
+    private Collision[] collisions = new Collision[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @return the number of events in the buffer.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param event The index of the event.
+     * @return {@link #ENTER}, {@link #STAY} or {@link #EXIT}.
+     */
+    public int type(int event) {
+        return types[event];
+    }
+
+    /**
+     * @param event The index of the event.
+     * @return the object receiving the event.
+     */
+    public GameObject gameObject(int event) {
+        return gameObjects[event];
+    }
+
+    /**
+     * @param event The index of the event.
+     * @return the object the receiving object collided with.
+     */
+    public GameObject other(int event) {
+        return others[event];
+    }
+
+    /**
+     * @param event The index of the event.
+     * @return the collision as the receiving object sees it, or null for exit events.
+     */
+    public Collision collision(int event) {
+        return collisions[event];
+    }
+
+    void add(int type, GameObject gameObject, GameObject other, Collision collision) {
+        if (size == types.length) {
+            int newCapacity = size * 2;
+            types = Arrays.copyOf(types, newCapacity);
+            gameObjects = Arrays.copyOf(gameObjects, newCapacity);
+            others = Arrays.copyOf(others, newCapacity);
+            collisions = Arrays.copyOf(collisions, newCapacity);
+        }
+        types[size] = (byte) type;
+        gameObjects[size] = gameObject;
+        others[size] = other;
+        collisions[size] = collision;
+        size++;
+    }
+
+    /*
+     * Empties the buffer, without keeping the objects of the frame alive.
+     */
+    void clear() {
+        Arrays.fill(gameObjects, 0, size, null);
+        Arrays.fill(others, 0, size, null);
+        Arrays.fill(collisions, 0, size, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,138 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+import danogl.collisions.Collision;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * package-private. Delivers the collision events a {@link BrickerGameObjectCollection} finds
+ * to the objects' callbacks: right away, like the library, or, while events are buffered,
+ * through a {@link CollisionEventBuffer} that is dispatched once detection is over and then
+ * handed to the {@link CollisionEventListener}s.
+ * <p>
+ * Callbacks are timed into the collection's metrics, if it keeps any.
+ */
+class CollisionEventDispatcher {
+    private final CollisionEventBuffer events = new CollisionEventBuffer();
+    private final List<CollisionEventListener> listeners = new ArrayList<>();
+    private boolean isBuffered;
+    // null while metrics are off
+    private CollisionMetrics metrics;
+
+    /**
+     * See {@link BrickerGameObjectCollection#setBufferedEvents}.
+     */
+    void setBuffered(boolean isBuffered) {
+        this.isBuffered = isBuffered;
+    }
+
+    /**
+     * Sets the metrics the callbacks are timed into, or null to stop timing them.
+     */
+    void setMetrics(CollisionMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * See {@link BrickerGameObjectCollection#addCollisionEventListener}.
+     */
+    void addListener(CollisionEventListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * See {@link BrickerGameObjectCollection#removeCollisionEventListener}.
+     */
+    boolean removeListener(CollisionEventListener listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Calls the callback right away, or records it if events are buffered. Callbacks the
+     * object doesn't override are skipped, unless listeners want to see every event.
+     * @param type      One of the event types of {@link CollisionEventBuffer}.
+     * @param receiver  The proxy of the object receiving the event.
+     * @param other     The other object of the pair.
+     * @param collision The Collision, or null for exit events and sensor events.
+     */
+    void report(int type, CollisionProxy receiver, GameObject other, Collision collision) {
+        if (isBuffered && !listeners.isEmpty()) {
+            events.add(type, receiver.gameObject(), other, collision);
+            return;
+        }
+        if (!receiver.overridesCallback(type)) {
+            return;
+        }
+        if (isBuffered) {
+            events.add(type, receiver.gameObject(), other, collision);
+            return;
+        }
+        if (metrics == null) {
+            dispatch(type, receiver.gameObject(), other, collision);
+            return;
+        }
+        long start = System.nanoTime();
+        dispatch(type, receiver.gameObject(), other, collision);
+        metrics.addCallbackNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Reports a sensor event to the sensors of a pair only. The other object isn't affected
+     * by a sensor, and its callbacks were never written to receive a null Collision.
+     */
+    void reportToSensors(int type, CollisionProxy first, CollisionProxy second) {
+        if (first.isSensor()) {
+            report(type, first, second.gameObject(), null);
+        }
+        if (second.isSensor()) {
+            report(type, second, first.gameObject(), null);
+        }
+    }
+
+    /**
+     * Dispatches the events recorded during the frame, if there are any. Called once
+     * detection is over.
+     */
+    void dispatchRecorded() {
+        if (isBuffered || events.size() > 0) {
+            dispatchEvents();
+        }
+    }
+
+    /*
+     * Calls the buffered callbacks in order, then hands the whole buffer to the listeners.
+     * Collision data retired during the frame is only recycled at the start of the next one,
+     * so the Collisions in the buffer stay valid throughout.
+     */
+    private void dispatchEvents() {
+        long start = metrics != null ? System.nanoTime() : 0;
+        for (int event = 0; event < events.size(); event++) {
+            dispatch(events.type(event), events.gameObject(event), events.other(event),
+                    events.collision(event));
+        }
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onEvents(events);
+        }
+        events.clear();
+        if (metrics != null) {
+            metrics.addCallbackNanos(System.nanoTime() - start);
+        }
+    }
+
+    private static void dispatch(int type, GameObject obj, GameObject other,
+                                 Collision collision) {
+        switch (type) {
+            case CollisionEventBuffer.ENTER:
+                obj.onCollisionEnter(other, collision);
+                break;
+            case CollisionEventBuffer.STAY:
+                obj.onCollisionStay(other, collision);
+                break;
+            default:
+                obj.onCollisionExit(other);
+                break;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package bricker.collisions;
+
+/**
+ * Receives all the collision events of a frame at once, after the objects themselves received
+ * them. Only called while the collection buffers its events (see
+ * {@link BrickerGameObjectCollection#setBufferedEvents}).
+ */
+public interface CollisionEventListener {
+    /**
+     * Called once a frame, after collision detection is over.
+     * @param events The events of the frame, in the order they were dispatched.
+     */
+    void onEvents(CollisionEventBuffer events);
+}
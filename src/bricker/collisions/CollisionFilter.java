@@ -0,0 +1,56 @@
+package bricker.collisions;
+
+/**
+ * Implemented by GameObjects that only collide with some kinds of objects.
+ * Every object belongs to one or more categories (bits of an int), and has a mask of the
+ * categories it collides with; two objects can only collide if each one's category is in the
+ * other's mask. A {@link BrickerGameObjectCollection} reads both when the object joins it,
+ * and checks them before anything else about a pair, so pairs that are filtered out cost a
+ * single AND and never reach shouldCollideWith. Objects that don't implement this interface
+ * are in {@link #DEFAULT_CATEGORY} and collide with every category.
+ * <p>
+ * shouldCollideWith is still asked about the pairs that pass the filter, for decisions the
+ * categories can't express.
+ * <p>
+ * An object can also be a sensor: it is only told when it starts and stops overlapping
+ * other objects, and is never pushed or resolved. The objects it overlaps aren't affected.
+ */
+public interface CollisionFilter {
+    /**
+     * The category of objects that don't say otherwise.
+     */
+    int DEFAULT_CATEGORY = 1;
+    /**
+     * A mask of every category.
+     */
+    int ALL_CATEGORIES = -1;
+
+    /**
+     * @return the bits of the categories the object belongs to. Must not change while the
+     * object is in a collection.
+     */
+    default int collisionCategory() {
+        return DEFAULT_CATEGORY;
+    }
+
+    /**
+     * @return the bits of the categories the object collides with. Must not change while the
+     * object is in a collection.
+     */
+    default int collisionMask() {
+        return ALL_CATEGORIES;
+    }
+
+    /**
+     * Pairs with a sensor are found by testing whether the bounding boxes of the objects
+     * share some area. No collision data is computed for them and
+     * the resolver never sees them. The sensor receives onCollisionEnter (with a null
+     * Collision) and onCollisionExit, but not onCollisionStay; the other object receives
+     * nothing, unless it is a sensor too.
+     * @return true if the object is a sensor. Must not change while the object is in a
+     * collection.
+     */
+    default boolean isSensor() {
+        return false;
+    }
+}
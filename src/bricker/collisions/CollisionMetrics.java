@@ -0,0 +1,174 @@
+package bricker.collisions;
+
+/**
+ * What a {@link BrickerGameObjectCollection} did during its last call to handleCollisions:
+ * how many pairs went through each stage of collision detection, and how long each phase
+ * took. Only kept while metrics are enabled (see
+ * {@link BrickerGameObjectCollection#setMetricsEnabled}); the counters are reset at the start
+ * of every frame.
+ * <p>
+ * The phases don't overlap: the time spent in the resolver and in callbacks (even those called
+ * in the middle of detection) is not counted as pair handling.
+ */
+public class CollisionMetrics {
+    private int candidatePairs;
+    private int filteredPairs;
+    private int narrowphaseTests;
+    private int newContacts;
+    private int persistentContacts;
+    private int endedContacts;
+    private int resolverCalls;
+    private long boundsNanos;
+    private long pairNanos;
+    private long resolverNanos;
+    private long callbackNanos;
+
+    /**
+     * @return the pairs the broadphase, the static index or the library's loop reported.
+     */
+    public int candidatePairs() {
+        return candidatePairs;
+    }
+
+    /**
+     * @return the candidate pairs rejected by collision filters, layers, coordinate spaces or
+     * shouldCollideWith.
+     */
+    public int filteredPairs() {
+        return filteredPairs;
+    }
+
+    /**
+     * @return the pairs whose colliders (or, for sensors, boxes) were intersected.
+     */
+    public int narrowphaseTests() {
+        return narrowphaseTests;
+    }
+
+    /**
+     * @return the pairs that started colliding.
+     */
+    public int newContacts() {
+        return newContacts;
+    }
+
+    /**
+     * @return the pairs that were already colliding and still are.
+     */
+    public int persistentContacts() {
+        return persistentContacts;
+    }
+
+    /**
+     * @return the pairs that stopped colliding.
+     */
+    public int endedContacts() {
+        return endedContacts;
+    }
+
+    /**
+     * @return the number of times the resolver was called.
+     */
+    public int resolverCalls() {
+        return resolverCalls;
+    }
+
+    /**
+     * @return the nanoseconds spent refreshing bounding boxes, sleep states and sweeps.
+     */
+    public long boundsNanos() {
+        return boundsNanos;
+    }
+
+    /**
+     * @return the nanoseconds spent finding and handling pairs, without the resolver and
+     * the callbacks.
+     */
+    public long pairNanos() {
+        return pairNanos;
+    }
+
+    /**
+     * @return the nanoseconds spent in the resolver.
+     */
+    public long resolverNanos() {
+        return resolverNanos;
+    }
+
+    /**
+     * @return the nanoseconds spent in collision callbacks and event listeners.
+     */
+    public long callbackNanos() {
+        return callbackNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "candidates " + candidatePairs + ", filtered " + filteredPairs
+                + ", tests " + narrowphaseTests + "\ncontacts +" + newContacts
+                + " =" + persistentContacts + " -" + endedContacts
+                + ", resolved " + resolverCalls
+                + "\nbounds " + micros(boundsNanos) + "us, pairs " + micros(pairNanos)
+                + "us, resolver " + micros(resolverNanos) + "us, callbacks "
+                + micros(callbackNanos) + "us";
+    }
+
+    void reset() {
+        candidatePairs = 0;
+        filteredPairs = 0;
+        narrowphaseTests = 0;
+        newContacts = 0;
+        persistentContacts = 0;
+        endedContacts = 0;
+        resolverCalls = 0;
+        boundsNanos = 0;
+        pairNanos = 0;
+        resolverNanos = 0;
+        callbackNanos = 0;
+    }
+
+    void countCandidate() {
+        candidatePairs++;
+    }
+
+    void countFiltered() {
+        filteredPairs++;
+    }
+
+    void countTest() {
+        narrowphaseTests++;
+    }
+
+    void countNewContact() {
+        newContacts++;
+    }
+
+    void countPersistentContact() {
+        persistentContacts++;
+    }
+
+    void countEndedContact() {
+        endedContacts++;
+    }
+
+    void addBoundsNanos(long nanos) {
+        boundsNanos += nanos;
+    }
+
+    void addPairNanos(long nanos) {
+        pairNanos += nanos;
+    }
+
+    void addResolverNanos(long nanos) {
+        resolverCalls++;
+        resolverNanos += nanos;
+    }
+
+    void addCallbackNanos(long nanos) {
+        callbackNanos += nanos;
+    }
+
+    private static long micros(long nanos) {
+        return nanos / 1000;
+    }
+}
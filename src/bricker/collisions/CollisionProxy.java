@@ -0,0 +1,473 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+import danogl.collisions.AABB.AABBCollider;
+import danogl.collisions.Collider;
+import danogl.components.GameObjectPhysics;
+import danogl.util.Vector2;
+
+/**
+ * The collision engine's record of a single GameObject inside a
+ * {@link BrickerGameObjectCollection}.
+ * A proxy holds a small integer id that stays the same for as long as the object is in the
+ * collection, the layer the object was added to, and the object's world-space bounding box.
+ * The bounding box is refreshed once per frame, before the broadphase looks for pairs, and
+ * when the collection needs to know whether an object moved since then.
+ * Every refresh that finds the box changed increments the proxy's {@link #version()}, so
+ * whoever caches something computed from the box only needs to compare two ints to know
+ * whether it is still valid.
+ * <p>
+ * A proxy whose object hasn't moved, resized or changed its velocity or acceleration for a
+ * number of frames is asleep; the collection doesn't look for collisions between sleeping
+ * objects.
+ */
+public class CollisionProxy {
+    // how much further than its speed allows an object may move and still be swept
+    private static final float MAX_SWEEP_SLACK = 1.5f;
+
+    private final GameObject gameObject;
+    private final int layerId;
+    private final int category;
+    private final int mask;
+    private final boolean isSensor;
+    // the collision callbacks the object's class overrides
+    private final int callbacks;
+    private int id = -1;
+    private int staticIndex = -1;
+    private int layerSlot = LayerTable.NO_SLOT;
+    private float minX, minY, maxX, maxY;
+    private int version;
+    private boolean isStatic;
+    // the collider the type ordinal was read from
+    private Collider typedCollider;
+    private int colliderType;
+    // where the box started the frame, while it is swept along its motion
+    private boolean isSwept;
+    private float startMinX, startMinY, sweepX, sweepY;
+    private float impactTime;
+    // from where the object was stopped to slightly past its impact
+    private float impactOffsetX, impactOffsetY;
+    // where the object was, and how fast it went, when the previous frame ended
+    private float lastCornerX = Float.NaN, lastCornerY, lastSpeed;
+    // the state the object has been resting in, and for how many frames
+    private int restVersion = -1;
+    private float restVelocityX, restVelocityY, restAccelerationX, restAccelerationY;
+    private int idleFrames;
+    private boolean isAsleep;
+
+    /**
+     * Constructor for the proxy. The id is assigned once the proxy is registered.
+     * @param gameObject The object this proxy stands for.
+     * @param layerId    The layer the object was added to.
+     */
+    CollisionProxy(GameObject gameObject, int layerId) {
+        this.gameObject = gameObject;
+        this.layerId = layerId;
+        if (gameObject instanceof CollisionFilter) {
+            CollisionFilter filter = (CollisionFilter) gameObject;
+            category = filter.collisionCategory();
+            mask = filter.collisionMask();
+            isSensor = filter.isSensor();
+        } else {
+            category = CollisionFilter.DEFAULT_CATEGORY;
+            mask = CollisionFilter.ALL_CATEGORIES;
+            isSensor = false;
+        }
+        callbacks = CallbackOverrides.of(gameObject.getClass());
+    }
+
+    /**
+     * @return the object this proxy stands for.
+     */
+    public GameObject gameObject() {
+        return gameObject;
+    }
+
+    /**
+     * @return a small non-negative id, unique among the proxies of the same collection.
+     * Ids of removed objects are reused.
+     */
+    public int id() {
+        return id;
+    }
+
+    /**
+     * @return the id of the layer the object was added to.
+     */
+    public int layerId() {
+        return layerId;
+    }
+
+    /**
+     * @return the left side of the bounding box, in world coordinates.
+     */
+    public float minX() {
+        return minX;
+    }
+
+    /**
+     * @return the top side of the bounding box, in world coordinates.
+     */
+    public float minY() {
+        return minY;
+    }
+
+    /**
+     * @return the right side of the bounding box, in world coordinates.
+     */
+    public float maxX() {
+        return maxX;
+    }
+
+    /**
+     * @return the bottom side of the bounding box, in world coordinates.
+     */
+    public float maxY() {
+        return maxY;
+    }
+
+    /**
+     * @return a stamp that grows every time the bounding box is found to have changed.
+     * Stamps of different proxies are unrelated, and may be equal.
+     */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Checks whether the bounding boxes of two proxies overlap. Touching boxes count as
+     * overlapping, so that this test never rejects a pair the AABB narrowphase would accept.
+     * @param other The other proxy.
+     * @return true if the boxes overlap or touch.
+     */
+    public boolean overlaps(CollisionProxy other) {
+        return minX <= other.maxX && other.minX <= maxX
+                && minY <= other.maxY && other.minY <= maxY;
+    }
+
+    /*
+     * Whether the categories of the objects let them collide, and they live in the same
+     * coordinate space. Cheap enough to be checked before anything else about a pair.
+     */
+    boolean canCollideWith(CollisionProxy other) {
+        return (category & other.mask) != 0 && (other.category & mask) != 0
+                && gameObject.getCoordinateSpace() == other.gameObject.getCoordinateSpace();
+    }
+
+    /*
+     * Whether the object is a sensor, whose pairs are only tested for overlap.
+     */
+    boolean isSensor() {
+        return isSensor;
+    }
+
+    /*
+     * Whether the object's class overrides the callback of an event type of
+     * CollisionEventBuffer. Callbacks that aren't overridden do nothing, and aren't called.
+     */
+    boolean overridesCallback(int eventType) {
+        return (callbacks & (1 << eventType)) != 0;
+    }
+
+    /*
+     * The ordinal of the object's collider type. Only looked up again if the object's
+     * collider was replaced.
+     */
+    int colliderType(ColliderDispatch dispatch) {
+        Collider collider = gameObject.physics().collider();
+        if (collider != typedCollider) {
+            typedCollider = collider;
+            colliderType = dispatch.ordinalOf(collider.colliderType());
+        }
+        return colliderType;
+    }
+
+    boolean hasAabbCollider() {
+        return gameObject.physics().collider() instanceof AABBCollider;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * @return true if the object has been idle long enough to be put to sleep.
+     */
+    public boolean isAsleep() {
+        return isAsleep;
+    }
+
+    /*
+     * Static objects and sleeping objects are not expected to move, so pairs of them are
+     * never handled.
+     */
+    boolean isResting() {
+        return isAsleep || isStatic;
+    }
+
+    void setStatic(boolean isStatic) {
+        this.isStatic = isStatic;
+    }
+
+    /*
+     * Compares the object's bounding box, velocity and acceleration with those it has been
+     * resting with. Any change wakes the proxy up; otherwise it falls asleep once it has been
+     * idle for sleepDelay frames. The bounding box must be up to date.
+     */
+    void updateSleep(int sleepDelay) {
+        Vector2 velocity = gameObject.getVelocity();
+        Vector2 acceleration = gameObject.transform().getAcceleration();
+        if (version != restVersion || velocity.x() != restVelocityX || velocity.y() != restVelocityY
+                || acceleration.x() != restAccelerationX
+                || acceleration.y() != restAccelerationY) {
+            restVersion = version;
+            restVelocityX = velocity.x();
+            restVelocityY = velocity.y();
+            restAccelerationX = acceleration.x();
+            restAccelerationY = acceleration.y();
+            wake();
+            return;
+        }
+        if (idleFrames < sleepDelay) {
+            idleFrames++;
+        }
+        isAsleep = idleFrames >= sleepDelay;
+    }
+
+    /*
+     * Remembers where the object ended the frame, to know how far it moves in the next one.
+     */
+    void recordEndOfFrame() {
+        Vector2 corner = gameObject.getTopLeftCorner();
+        lastCornerX = corner.x();
+        lastCornerY = corner.y();
+        lastSpeed = gameObject.getVelocity().magnitude();
+    }
+
+    /*
+     * Sweeps the proxy if its object moved further than its own width or height since the
+     * previous frame. Movements that its speed can't explain (the object was placed
+     * somewhere else) are not swept.
+     */
+    boolean sweepIfFast(float deltaTime) {
+        if (Float.isNaN(lastCornerX)) {
+            return false;
+        }
+        Vector2 corner = gameObject.getTopLeftCorner();
+        float deltaX = corner.x() - lastCornerX;
+        float deltaY = corner.y() - lastCornerY;
+        if (!(Math.abs(deltaX) >= maxX - minX || Math.abs(deltaY) >= maxY - minY)) {
+            return false;
+        }
+        float maxSpeed = Math.max(lastSpeed, gameObject.getVelocity().magnitude());
+        float maxDistance = MAX_SWEEP_SLACK * maxSpeed * deltaTime;
+        if (deltaX * deltaX + deltaY * deltaY > maxDistance * maxDistance) {
+            return false;
+        }
+        sweep(deltaX, deltaY);
+        return true;
+    }
+
+    /*
+     * Grows the bounding box to cover the whole motion of the frame, which ended at the
+     * current box after moving by (deltaX, deltaY).
+     */
+    private void sweep(float deltaX, float deltaY) {
+        float width = maxX - minX;
+        float height = maxY - minY;
+        startMinX = minX - deltaX;
+        startMinY = minY - deltaY;
+        sweepX = deltaX;
+        sweepY = deltaY;
+        minX = Math.min(minX, startMinX);
+        minY = Math.min(minY, startMinY);
+        maxX = Math.max(maxX, startMinX + width);
+        maxY = Math.max(maxY, startMinY + height);
+        version++;
+        isSwept = true;
+        impactTime = SweptAabb.NO_IMPACT;
+        impactOffsetX = 0;
+        impactOffsetY = 0;
+    }
+
+    boolean isSwept() {
+        return isSwept;
+    }
+
+    /*
+     * When the swept box first touches another (unswept) box during the frame, as a fraction
+     * of the motion. Boxes that already overlapped at the start don't count as an impact.
+     */
+    float timeOfImpact(CollisionProxy other) {
+        float width = Math.max(maxX - minX - Math.abs(sweepX), 0);
+        float height = Math.max(maxY - minY - Math.abs(sweepY), 0);
+        float time = SweptAabb.timeOfImpact(startMinX, startMinY,
+                startMinX + width, startMinY + height, sweepX, sweepY,
+                other.minX, other.minY, other.maxX, other.maxY);
+        return time > 0 ? time : SweptAabb.NO_IMPACT;
+    }
+
+    /*
+     * Keeps the earliest impact of the frame.
+     */
+    void recordImpact(float time) {
+        impactTime = Math.min(impactTime, time);
+    }
+
+    /*
+     * Moves the object back along its motion to gap pixels before its earliest impact, so
+     * that it doesn't overlap what it hit, and remembers the offset from there to depth pixels
+     * past the impact. Objects that hit nothing stay where they are.
+     */
+    void rewindToImpact(float gap, float depth) {
+        if (impactTime == SweptAabb.NO_IMPACT) {
+            return;
+        }
+        float length = (float) Math.sqrt(sweepX * sweepX + sweepY * sweepY);
+        float time = Math.max(impactTime - gap / length, 0);
+        float touchTime = Math.min(impactTime + depth / length, 1);
+        impactOffsetX = sweepX * (touchTime - time);
+        impactOffsetY = sweepY * (touchTime - time);
+        Vector2 corner = gameObject.getTopLeftCorner();
+        gameObject.transform().setTopLeftCorner(corner.x() - sweepX * (1 - time),
+                corner.y() - sweepY * (1 - time));
+    }
+
+    /*
+     * The offset the object's box is read with while the pairs of its impact are handled.
+     */
+    float impactOffsetX() {
+        return impactOffsetX;
+    }
+
+    float impactOffsetY() {
+        return impactOffsetY;
+    }
+
+    /*
+     * Like overlaps, with this proxy's box shifted by its impact offset.
+     */
+    boolean overlapsAtImpact(CollisionProxy other) {
+        return minX + impactOffsetX <= other.maxX && other.minX <= maxX + impactOffsetX
+                && minY + impactOffsetY <= other.maxY && other.minY <= maxY + impactOffsetY;
+    }
+
+    void wake() {
+        idleFrames = 0;
+        isAsleep = false;
+    }
+
+    /*
+     * The position of the proxy in the static index it was last built into.
+     */
+    int staticIndex() {
+        return staticIndex;
+    }
+
+    void setStaticIndex(int staticIndex) {
+        this.staticIndex = staticIndex;
+    }
+
+    /*
+     * The slot of the proxy's layer in the collection's layer table.
+     */
+    int layerSlot() {
+        return layerSlot;
+    }
+
+    void setLayerSlot(int layerSlot) {
+        this.layerSlot = layerSlot;
+    }
+
+    /*
+     * Objects with immovable mass are never pushed by collisions.
+     */
+    boolean isImmovable() {
+        return gameObject.physics().mass() == GameObjectPhysics.IMMOVABLE_MASS;
+    }
+
+    /*
+     * Recomputes the bounding box from the object's transform and collider, the same way
+     * AABBPairCollisionHandler does. Colliders of other types are bounded by the whole object.
+     */
+    void refreshBounds() {
+        isSwept = false;
+        float newMinX = left(gameObject);
+        float newMinY = top(gameObject);
+        float newMaxX = newMinX + width(gameObject);
+        float newMaxY = newMinY + height(gameObject);
+        if (newMinX != minX || newMinY != minY || newMaxX != maxX || newMaxY != maxY) {
+            minX = newMinX;
+            minY = newMinY;
+            maxX = newMaxX;
+            maxY = newMaxY;
+            version++;
+        }
+    }
+
+    /*
+     * Refreshes the box in the middle of the frame, after the resolver or a callback may have
+     * moved the object, so that a move shows in the version. Static boxes are only read when
+     * the static index is rebuilt, and swept boxes stay swept until their impacts are handled.
+     */
+    void refreshMovedBounds() {
+        if (!isStatic && !isSwept) {
+            refreshBounds();
+        }
+    }
+
+    /*
+     * Whether the boxes the objects have right now (rather than the possibly swept bounding
+     * boxes) share some area, the way AABBPairCollisionHandler decides that two AABB
+     * colliders collide. Unlike overlaps, touching doesn't count.
+     */
+    boolean intersectsNow(CollisionProxy other) {
+        float left = left(gameObject);
+        float top = top(gameObject);
+        float right = left + width(gameObject);
+        float bottom = top + height(gameObject);
+        float otherLeft = left(other.gameObject);
+        float otherTop = top(other.gameObject);
+        float otherRight = otherLeft + width(other.gameObject);
+        float otherBottom = otherTop + height(other.gameObject);
+        return left < right && top < bottom && otherLeft < otherRight && otherTop < otherBottom
+                && left < otherRight && otherLeft < right && top < otherBottom && otherTop < bottom;
+    }
+
+    private static float left(GameObject gameObject) {
+        Collider collider = gameObject.physics().collider();
+        float cornerX = gameObject.getTopLeftCorner().x();
+        if (collider instanceof AABBCollider) {
+            return cornerX + ((AABBCollider) collider).getRectangle().x
+                    * gameObject.getDimensions().x();
+        }
+        return cornerX;
+    }
+
+    private static float top(GameObject gameObject) {
+        Collider collider = gameObject.physics().collider();
+        float cornerY = gameObject.getTopLeftCorner().y();
+        if (collider instanceof AABBCollider) {
+            return cornerY + ((AABBCollider) collider).getRectangle().y
+                    * gameObject.getDimensions().y();
+        }
+        return cornerY;
+    }
+
+    private static float width(GameObject gameObject) {
+        Collider collider = gameObject.physics().collider();
+        if (collider instanceof AABBCollider) {
+            return ((AABBCollider) collider).getRectangle().width * gameObject.getDimensions().x();
+        }
+        return gameObject.getDimensions().x();
+    }
+
+    private static float height(GameObject gameObject) {
+        Collider collider = gameObject.physics().collider();
+        if (collider instanceof AABBCollider) {
+            return ((AABBCollider) collider).getRectangle().height
+                    * gameObject.getDimensions().y();
+        }
+        return gameObject.getDimensions().y();
+    }
+}
@@ -0,0 +1,259 @@
+package bricker.collisions;
+
+import danogl.collisions.PairCollisionData;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * package-private. The pairs of objects that are currently colliding, with the collision data
+ * of each pair.
+ * A contact is found by the ids of its two proxies, packed into a long and looked up in an
+ * open-addressing table, so finding one allocates nothing and doesn't depend on the order
+ * of the pair. Every proxy also keeps a list of its own contacts, so the contacts of a
+ * removed object are dropped without looking at anyone else's.
+ * <p>
+ * Contacts are numbered; a number stays valid until the contact is removed, and may then be
+ * given to a new contact. The collision data of a removed contact is handed to the consumer
+ * given on construction, which may reuse it.
+ */
+class ContactCache {
+    /**
+     * Returned when there is no such contact.
+     */
+    static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // open-addressing table from packed id pairs to contacts
+    private long[] keys = new long[2 * INITIAL_CAPACITY];
+    private int[] contactByKey = new int[2 * INITIAL_CAPACITY];
+
+    private CollisionProxy[] proxy1 = new CollisionProxy[INITIAL_CAPACITY];
+    private CollisionProxy[] proxy2 = new CollisionProxy[INITIAL_CAPACITY];
+    private PairCollisionData[] data = new PairCollisionData[INITIAL_CAPACITY];
+    private int[] lastHandledFrame = new int[INITIAL_CAPACITY];
+    private int[] freeContacts = new int[INITIAL_CAPACITY];
+    private int freeContactCount;
+    private int contactLimit;
+    private int size;
+
+    // the contacts of each proxy, by proxy id
+    private int[][] contactsById = new int[INITIAL_CAPACITY][];
+    private int[] contactCountById = new int[INITIAL_CAPACITY];
+    private final Consumer<PairCollisionData> removedData;
+
+    /**
+     * Constructor.
+     * @param removedData Given the collision data of every removed contact.
+     */
+    ContactCache(Consumer<PairCollisionData> removedData) {
+        this.removedData = removedData;
+        Arrays.fill(contactByKey, NONE);
+    }
+
+    /**
+     * @return the contact between two proxies (in either order), or NONE.
+     */
+    int find(CollisionProxy first, CollisionProxy second) {
+        long key = pairKey(first.id(), second.id());
+        int mask = keys.length - 1;
+        for (int index = home(key, mask); contactByKey[index] != NONE;
+             index = (index + 1) & mask) {
+            if (keys[index] == key) {
+                return contactByKey[index];
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Adds a contact. There must not already be a contact between the two proxies.
+     * @return the number of the new contact.
+     */
+    int add(CollisionProxy first, CollisionProxy second, PairCollisionData collisionData,
+            int frame) {
+        if (2 * (size + 1) > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int contact = allocateContact();
+        proxy1[contact] = first;
+        proxy2[contact] = second;
+        data[contact] = collisionData;
+        lastHandledFrame[contact] = frame;
+        long key = pairKey(first.id(), second.id());
+        int mask = keys.length - 1;
+        int index = home(key, mask);
+        while (contactByKey[index] != NONE) {
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        contactByKey[index] = contact;
+        addToProxy(first.id(), contact);
+        addToProxy(second.id(), contact);
+        size++;
+        return contact;
+    }
+
+    /**
+     * Removes a contact.
+     */
+    void remove(int contact) {
+        long key = pairKey(proxy1[contact].id(), proxy2[contact].id());
+        int mask = keys.length - 1;
+        int index = home(key, mask);
+        while (keys[index] != key || contactByKey[index] == NONE) {
+            index = (index + 1) & mask;
+        }
+        removeKeyAt(index);
+        removeFromProxy(proxy1[contact].id(), contact);
+        removeFromProxy(proxy2[contact].id(), contact);
+        proxy1[contact] = null;
+        proxy2[contact] = null;
+        PairCollisionData removed = data[contact];
+        data[contact] = null;
+        freeContacts[freeContactCount++] = contact;
+        size--;
+        removedData.accept(removed);
+    }
+
+    /**
+     * Removes all the contacts of a proxy.
+     */
+    void removeContactsOf(CollisionProxy proxy) {
+        int id = proxy.id();
+        while (id < contactCountById.length && contactCountById[id] > 0) {
+            remove(contactsById[id][contactCountById[id] - 1]);
+        }
+    }
+
+    /**
+     * @return one more than the highest contact number in use. Contacts below it may be
+     * unused; check with {@link #isLive(int)}.
+     */
+    int contactLimit() {
+        return contactLimit;
+    }
+
+    boolean isLive(int contact) {
+        return proxy1[contact] != null;
+    }
+
+    CollisionProxy proxy1(int contact) {
+        return proxy1[contact];
+    }
+
+    CollisionProxy proxy2(int contact) {
+        return proxy2[contact];
+    }
+
+    PairCollisionData data(int contact) {
+        return data[contact];
+    }
+
+    int lastHandledFrame(int contact) {
+        return lastHandledFrame[contact];
+    }
+
+    void setLastHandledFrame(int contact, int frame) {
+        lastHandledFrame[contact] = frame;
+    }
+
+    private int allocateContact() {
+        if (freeContactCount > 0) {
+            return freeContacts[--freeContactCount];
+        }
+        if (contactLimit == proxy1.length) {
+            int newCapacity = contactLimit * 2;
+            proxy1 = Arrays.copyOf(proxy1, newCapacity);
+            proxy2 = Arrays.copyOf(proxy2, newCapacity);
+            data = Arrays.copyOf(data, newCapacity);
+            lastHandledFrame = Arrays.copyOf(lastHandledFrame, newCapacity);
+            freeContacts = Arrays.copyOf(freeContacts, newCapacity);
+        }
+        return contactLimit++;
+    }
+
+    /*
+     * Empties a slot of the table, and moves back the entries after it that would otherwise
+     * no longer be reachable from their home slot.
+     */
+    private void removeKeyAt(int index) {
+        int mask = keys.length - 1;
+        int next = index;
+        while (true) {
+            next = (next + 1) & mask;
+            if (contactByKey[next] == NONE) {
+                break;
+            }
+            int nextHome = home(keys[next], mask);
+            // the entry can move back unless its home lies cyclically in (index, next]
+            boolean homeBetween = index <= next
+                    ? index < nextHome && nextHome <= next
+                    : index < nextHome || nextHome <= next;
+            if (!homeBetween) {
+                keys[index] = keys[next];
+                contactByKey[index] = contactByKey[next];
+                index = next;
+            }
+        }
+        contactByKey[index] = NONE;
+    }
+
+    private void rehash(int newLength) {
+        long[] oldKeys = keys;
+        int[] oldContacts = contactByKey;
+        keys = new long[newLength];
+        contactByKey = new int[newLength];
+        Arrays.fill(contactByKey, NONE);
+        int mask = newLength - 1;
+        for (int oldIndex = 0; oldIndex < oldKeys.length; oldIndex++) {
+            if (oldContacts[oldIndex] == NONE) {
+                continue;
+            }
+            int index = home(oldKeys[oldIndex], mask);
+            while (contactByKey[index] != NONE) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = oldKeys[oldIndex];
+            contactByKey[index] = oldContacts[oldIndex];
+        }
+    }
+
+    private void addToProxy(int id, int contact) {
+        if (id >= contactCountById.length) {
+            int newLength = Math.max(id + 1, contactCountById.length * 2);
+            contactsById = Arrays.copyOf(contactsById, newLength);
+            contactCountById = Arrays.copyOf(contactCountById, newLength);
+        }
+        int[] contacts = contactsById[id];
+        if (contacts == null) {
+            contacts = contactsById[id] = new int[4];
+        } else if (contactCountById[id] == contacts.length) {
+            contacts = contactsById[id] = Arrays.copyOf(contacts, contacts.length * 2);
+        }
+        contacts[contactCountById[id]++] = contact;
+    }
+
+    private void removeFromProxy(int id, int contact) {
+        int[] contacts = contactsById[id];
+        int last = --contactCountById[id];
+        for (int i = 0; i < last; i++) {
+            if (contacts[i] == contact) {
+                contacts[i] = contacts[last];
+                break;
+            }
+        }
+    }
+
+    private static long pairKey(int id1, int id2) {
+        int low = Math.min(id1, id2);
+        int high = Math.max(id1, id2);
+        return ((long) high << 32) | low;
+    }
+
+    private static int home(long key, int mask) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32) & mask;
+    }
+}
@@ -0,0 +1,89 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+import danogl.collisions.PairCollisionData;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * package-private. Contacts of one class, reused instead of allocated, so a game in a steady
+ * state allocates nothing for its collisions.
+ * <p>
+ * A contact that is no longer needed is first retired: the callbacks of the frame may still be
+ * reading its Collisions. Retired contacts go back to the pool on {@link #recycleRetired()},
+ * which must be called when no callbacks are running.
+ * @param <C> The class of the contacts.
+ */
+class ContactPool<C extends AabbContact> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Class<C> type;
+    private final Supplier<C> factory;
+    private AabbContact[] pool = new AabbContact[INITIAL_CAPACITY];
+    private int poolSize;
+    private AabbContact[] retired = new AabbContact[INITIAL_CAPACITY];
+    private int retiredCount;
+
+    /**
+     * Constructor for the pool.
+     * @param type    The class of the contacts. Only contacts of exactly this class are
+     *                retired into the pool.
+     * @param factory Creates a contact when the pool has none to reuse.
+     */
+    ContactPool(Class<C> type, Supplier<C> factory) {
+        this.type = type;
+        this.factory = factory;
+    }
+
+    /**
+     * Takes a contact from the pool (or creates one), describing a new pair of objects.
+     */
+    @SuppressWarnings("unchecked")
+    C take(GameObject go1, GameObject go2) {
+        C contact = poolSize > 0 ? (C) pool[--poolSize] : factory.get();
+        contact.reset(go1, go2);
+        return contact;
+    }
+
+    /**
+     * Puts back a contact that was never handed out, right away.
+     */
+    void giveBack(C contact) {
+        contact.reset(null, null);
+        if (poolSize == pool.length) {
+            pool = Arrays.copyOf(pool, poolSize * 2);
+        }
+        pool[poolSize++] = contact;
+    }
+
+    /**
+     * Marks the collision data of a pair that stopped colliding as no longer needed. Data of
+     * another class (including subclasses of the pool's class) is ignored.
+     */
+    void retire(PairCollisionData data) {
+        if (data == null || data.getClass() != type) {
+            return;
+        }
+        if (retiredCount == retired.length) {
+            retired = Arrays.copyOf(retired, retiredCount * 2);
+        }
+        retired[retiredCount++] = (AabbContact) data;
+    }
+
+    /**
+     * Returns the retired contacts to the pool.
+     */
+    void recycleRetired() {
+        if (poolSize + retiredCount > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + retiredCount));
+        }
+        for (int i = 0; i < retiredCount; i++) {
+            // so the pool doesn't keep removed objects alive
+            retired[i].reset(null, null);
+            pool[poolSize++] = retired[i];
+            retired[i] = null;
+        }
+        retiredCount = 0;
+    }
+}
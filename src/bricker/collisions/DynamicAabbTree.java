@@ -0,0 +1,479 @@
+package bricker.collisions;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * package-private. A dynamic bounding volume hierarchy of proxies.
+ * Every leaf holds one proxy with a "fat" box: its bounding box grown by a margin. As long
+ * as the proxy stays inside its fat box the tree is left alone; only when it leaves it is the
+ * leaf removed and inserted again. Inner nodes bound their two children, and the tree is kept
+ * balanced with rotations, so queries cost O(log n) regardless of how sizes are distributed.
+ * <p>
+ * Nodes are stored in parallel arrays and recycled through a free list.
+ */
+class DynamicAabbTree {
+
+    /*
+     * Measures the distance to a proxy for the tree's ray and nearest-neighbour searches.
+     * Returns Float.POSITIVE_INFINITY for proxies that should be ignored (or that a ray
+     * misses); the searches never return those, even when they are given no limit.
+     */
+    interface ProxyDistance {
+        float distanceTo(CollisionProxy proxy);
+    }
+
+    private static final int NULL_NODE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final float margin;
+
+    private float[] nodeMinX = new float[INITIAL_CAPACITY];
+    private float[] nodeMinY = new float[INITIAL_CAPACITY];
+    private float[] nodeMaxX = new float[INITIAL_CAPACITY];
+    private float[] nodeMaxY = new float[INITIAL_CAPACITY];
+    private int[] parent = new int[INITIAL_CAPACITY];
+    private int[] child1 = new int[INITIAL_CAPACITY];
+    private int[] child2 = new int[INITIAL_CAPACITY];
+    private int[] height = new int[INITIAL_CAPACITY];
+    private CollisionProxy[] nodeProxy = new CollisionProxy[INITIAL_CAPACITY];
+    private int root = NULL_NODE;
+    private int freeList = NULL_NODE;
+    private int capacity;
+    private int[] stack = new int[INITIAL_CAPACITY];
+
+    /**
+     * Constructor for the tree.
+     * @param margin How much (in pixels) the fat box of a leaf extends beyond its proxy.
+     */
+    DynamicAabbTree(float margin) {
+        this.margin = margin;
+    }
+
+    /**
+     * Adds a proxy to the tree, using its current bounding box.
+     * @return the leaf of the proxy, to be used in the other calls.
+     */
+    int insert(CollisionProxy proxy) {
+        int leaf = allocateNode();
+        nodeProxy[leaf] = proxy;
+        fatten(leaf);
+        insertLeaf(leaf);
+        return leaf;
+    }
+
+    /**
+     * Removes a leaf from the tree.
+     */
+    void remove(int leaf) {
+        removeLeaf(leaf);
+        freeNode(leaf);
+    }
+
+    /**
+     * Re-inserts a leaf if its proxy has left the fat box.
+     * @return true if the leaf was moved.
+     */
+    boolean update(int leaf) {
+        CollisionProxy proxy = nodeProxy[leaf];
+        if (nodeMinX[leaf] <= proxy.minX() && nodeMinY[leaf] <= proxy.minY()
+                && proxy.maxX() <= nodeMaxX[leaf] && proxy.maxY() <= nodeMaxY[leaf]) {
+            return false;
+        }
+        removeLeaf(leaf);
+        fatten(leaf);
+        insertLeaf(leaf);
+        return true;
+    }
+
+    /**
+     * Reports the proxies whose fat boxes overlap (or touch) the given box.
+     * The tree must not be changed by the consumer.
+     */
+    void query(float minX, float minY, float maxX, float maxY,
+               Consumer<CollisionProxy> consumer) {
+        if (root == NULL_NODE) {
+            return;
+        }
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int node = stack[--top];
+            if (nodeMinX[node] > maxX || minX > nodeMaxX[node]
+                    || nodeMinY[node] > maxY || minY > nodeMaxY[node]) {
+                continue;
+            }
+            if (isLeaf(node)) {
+                consumer.accept(nodeProxy[node]);
+                continue;
+            }
+            top = push(top, child1[node], child2[node]);
+        }
+    }
+
+    /**
+     * Finds the proxy closest along a ray. Subtrees whose fat boxes the ray enters after the
+     * closest hit so far are skipped.
+     * @param directionX The ray's direction; must be of length 1 together with directionY.
+     * @param distance   Measures how far along the ray a proxy is hit.
+     * @return the proxy hit first, or null if none is hit within maxDistance.
+     */
+    CollisionProxy raycast(float originX, float originY, float directionX, float directionY,
+                           float maxDistance, ProxyDistance distance) {
+        CollisionProxy closest = null;
+        float closestDistance = maxDistance;
+        if (root == NULL_NODE) {
+            return null;
+        }
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int node = stack[--top];
+            float entry = rayDistance(originX, originY, directionX, directionY,
+                    nodeMinX[node], nodeMinY[node], nodeMaxX[node], nodeMaxY[node]);
+            if (entry > closestDistance) {
+                continue;
+            }
+            if (isLeaf(node)) {
+                float hit = distance.distanceTo(nodeProxy[node]);
+                if (hit <= closestDistance && hit != Float.POSITIVE_INFINITY) {
+                    closest = nodeProxy[node];
+                    closestDistance = hit;
+                }
+                continue;
+            }
+            top = push(top, child1[node], child2[node]);
+        }
+        return closest;
+    }
+
+    /**
+     * Finds the proxy nearest to a point. Subtrees whose fat boxes are farther than the
+     * nearest proxy so far are skipped, and the nearer child is always searched first.
+     * @param distance Measures how far a proxy is from the point.
+     * @return the nearest proxy, or null if none is within maxDistance.
+     */
+    CollisionProxy nearest(float x, float y, float maxDistance, ProxyDistance distance) {
+        CollisionProxy nearest = null;
+        float nearestDistance = maxDistance;
+        if (root == NULL_NODE) {
+            return null;
+        }
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int node = stack[--top];
+            if (pointDistance(x, y, nodeMinX[node], nodeMinY[node],
+                    nodeMaxX[node], nodeMaxY[node]) > nearestDistance) {
+                continue;
+            }
+            if (isLeaf(node)) {
+                float candidate = distance.distanceTo(nodeProxy[node]);
+                if (candidate <= nearestDistance && candidate != Float.POSITIVE_INFINITY) {
+                    nearest = nodeProxy[node];
+                    nearestDistance = candidate;
+                }
+                continue;
+            }
+            int first = child1[node], second = child2[node];
+            float firstDistance = pointDistance(x, y, nodeMinX[first], nodeMinY[first],
+                    nodeMaxX[first], nodeMaxY[first]);
+            float secondDistance = pointDistance(x, y, nodeMinX[second], nodeMinY[second],
+                    nodeMaxX[second], nodeMaxY[second]);
+            // the child pushed last is popped first
+            top = firstDistance < secondDistance
+                    ? push(top, second, first) : push(top, first, second);
+        }
+        return nearest;
+    }
+
+    /**
+     * The distance along a ray at which it enters a box: 0 if it starts inside the box, and
+     * Float.POSITIVE_INFINITY if it never enters it.
+     */
+    static float rayDistance(float originX, float originY, float directionX, float directionY,
+                             float minX, float minY, float maxX, float maxY) {
+        float entry = 0;
+        float exit = Float.POSITIVE_INFINITY;
+        if (directionX == 0) {
+            if (originX < minX || originX > maxX) {
+                return Float.POSITIVE_INFINITY;
+            }
+        } else {
+            float near = (minX - originX) / directionX;
+            float far = (maxX - originX) / directionX;
+            entry = Math.max(entry, Math.min(near, far));
+            exit = Math.min(exit, Math.max(near, far));
+        }
+        if (directionY == 0) {
+            if (originY < minY || originY > maxY) {
+                return Float.POSITIVE_INFINITY;
+            }
+        } else {
+            float near = (minY - originY) / directionY;
+            float far = (maxY - originY) / directionY;
+            entry = Math.max(entry, Math.min(near, far));
+            exit = Math.min(exit, Math.max(near, far));
+        }
+        return entry <= exit ? entry : Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * The distance from a point to the nearest point of a box: 0 if the box contains it.
+     */
+    static float pointDistance(float x, float y, float minX, float minY, float maxX, float maxY) {
+        float dx = Math.max(Math.max(minX - x, x - maxX), 0);
+        float dy = Math.max(Math.max(minY - y, y - maxY), 0);
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * @return the left side of a leaf's fat box.
+     */
+    float fatMinX(int leaf) {
+        return nodeMinX[leaf];
+    }
+
+    /**
+     * @return the top side of a leaf's fat box.
+     */
+    float fatMinY(int leaf) {
+        return nodeMinY[leaf];
+    }
+
+    /**
+     * @return the right side of a leaf's fat box.
+     */
+    float fatMaxX(int leaf) {
+        return nodeMaxX[leaf];
+    }
+
+    /**
+     * @return the bottom side of a leaf's fat box.
+     */
+    float fatMaxY(int leaf) {
+        return nodeMaxY[leaf];
+    }
+
+    private int push(int top, int first, int second) {
+        if (top + 2 > stack.length) {
+            stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        stack[top++] = first;
+        stack[top++] = second;
+        return top;
+    }
+
+    private void fatten(int leaf) {
+        CollisionProxy proxy = nodeProxy[leaf];
+        nodeMinX[leaf] = proxy.minX() - margin;
+        nodeMinY[leaf] = proxy.minY() - margin;
+        nodeMaxX[leaf] = proxy.maxX() + margin;
+        nodeMaxY[leaf] = proxy.maxY() + margin;
+    }
+
+    /*
+     * Finds the sibling that grows the tree's total perimeter the least, and pairs the leaf
+     * with it under a new parent.
+     */
+    private void insertLeaf(int leaf) {
+        if (root == NULL_NODE) {
+            root = leaf;
+            parent[leaf] = NULL_NODE;
+            return;
+        }
+        float minX = nodeMinX[leaf], minY = nodeMinY[leaf];
+        float maxX = nodeMaxX[leaf], maxY = nodeMaxY[leaf];
+        int index = root;
+        while (!isLeaf(index)) {
+            float perimeter = perimeter(index);
+            float combined = combinedPerimeter(index, minX, minY, maxX, maxY);
+            float cost = 2 * combined;
+            float inheritanceCost = 2 * (combined - perimeter);
+            float cost1 = descendCost(child1[index], minX, minY, maxX, maxY) + inheritanceCost;
+            float cost2 = descendCost(child2[index], minX, minY, maxX, maxY) + inheritanceCost;
+            if (cost < cost1 && cost < cost2) {
+                break;
+            }
+            index = cost1 < cost2 ? child1[index] : child2[index];
+        }
+        int sibling = index;
+        int oldParent = parent[sibling];
+        int newParent = allocateNode();
+        parent[newParent] = oldParent;
+        height[newParent] = height[sibling] + 1;
+        setUnion(newParent, leaf, sibling);
+        if (oldParent != NULL_NODE) {
+            if (child1[oldParent] == sibling) {
+                child1[oldParent] = newParent;
+            } else {
+                child2[oldParent] = newParent;
+            }
+        } else {
+            root = newParent;
+        }
+        child1[newParent] = sibling;
+        child2[newParent] = leaf;
+        parent[sibling] = newParent;
+        parent[leaf] = newParent;
+        refitUpwards(parent[leaf]);
+    }
+
+    private void removeLeaf(int leaf) {
+        if (leaf == root) {
+            root = NULL_NODE;
+            return;
+        }
+        int oldParent = parent[leaf];
+        int grandParent = parent[oldParent];
+        int sibling = child1[oldParent] == leaf ? child2[oldParent] : child1[oldParent];
+        if (grandParent != NULL_NODE) {
+            if (child1[grandParent] == oldParent) {
+                child1[grandParent] = sibling;
+            } else {
+                child2[grandParent] = sibling;
+            }
+            parent[sibling] = grandParent;
+            freeNode(oldParent);
+            refitUpwards(grandParent);
+        } else {
+            root = sibling;
+            parent[sibling] = NULL_NODE;
+            freeNode(oldParent);
+        }
+    }
+
+    private void refitUpwards(int index) {
+        while (index != NULL_NODE) {
+            index = balance(index);
+            height[index] = 1 + Math.max(height[child1[index]], height[child2[index]]);
+            setUnion(index, child1[index], child2[index]);
+            index = parent[index];
+        }
+    }
+
+    /*
+     * If one child of the node is more than one level taller than the other, rotates it up.
+     * Returns the node that took the place of the given one.
+     */
+    private int balance(int a) {
+        if (isLeaf(a) || height[a] < 2) {
+            return a;
+        }
+        int b = child1[a];
+        int c = child2[a];
+        int balance = height[c] - height[b];
+        if (balance > 1) {
+            return rotateUp(a, c, b, false);
+        }
+        if (balance < -1) {
+            return rotateUp(a, b, c, true);
+        }
+        return a;
+    }
+
+    /*
+     * Rotates the taller child up in place of a. The taller child's own taller child stays
+     * with it, and its shorter child moves to a.
+     */
+    private int rotateUp(int a, int taller, int shorter, boolean tallerIsFirst) {
+        int f = child1[taller];
+        int g = child2[taller];
+        child1[taller] = a;
+        parent[taller] = parent[a];
+        parent[a] = taller;
+        if (parent[taller] != NULL_NODE) {
+            if (child1[parent[taller]] == a) {
+                child1[parent[taller]] = taller;
+            } else {
+                child2[parent[taller]] = taller;
+            }
+        } else {
+            root = taller;
+        }
+        int kept = height[f] > height[g] ? f : g;
+        int moved = kept == f ? g : f;
+        child2[taller] = kept;
+        if (tallerIsFirst) {
+            child1[a] = moved;
+        } else {
+            child2[a] = moved;
+        }
+        parent[moved] = a;
+        setUnion(a, shorter, moved);
+        height[a] = 1 + Math.max(height[shorter], height[moved]);
+        setUnion(taller, a, kept);
+        height[taller] = 1 + Math.max(height[a], height[kept]);
+        return taller;
+    }
+
+    private float descendCost(int child, float minX, float minY, float maxX, float maxY) {
+        float combined = combinedPerimeter(child, minX, minY, maxX, maxY);
+        return isLeaf(child) ? combined : combined - perimeter(child);
+    }
+
+    private float perimeter(int node) {
+        return 2 * ((nodeMaxX[node] - nodeMinX[node]) + (nodeMaxY[node] - nodeMinY[node]));
+    }
+
+    private float combinedPerimeter(int node, float minX, float minY, float maxX, float maxY) {
+        float extentX = Math.max(nodeMaxX[node], maxX) - Math.min(nodeMinX[node], minX);
+        float extentY = Math.max(nodeMaxY[node], maxY) - Math.min(nodeMinY[node], minY);
+        return 2 * (extentX + extentY);
+    }
+
+    private void setUnion(int node, int first, int second) {
+        nodeMinX[node] = Math.min(nodeMinX[first], nodeMinX[second]);
+        nodeMinY[node] = Math.min(nodeMinY[first], nodeMinY[second]);
+        nodeMaxX[node] = Math.max(nodeMaxX[first], nodeMaxX[second]);
+        nodeMaxY[node] = Math.max(nodeMaxY[first], nodeMaxY[second]);
+    }
+
+    private boolean isLeaf(int node) {
+        return child1[node] == NULL_NODE;
+    }
+
+    private int allocateNode() {
+        if (freeList == NULL_NODE) {
+            grow();
+        }
+        int node = freeList;
+        freeList = parent[node];
+        parent[node] = NULL_NODE;
+        child1[node] = NULL_NODE;
+        child2[node] = NULL_NODE;
+        height[node] = 0;
+        nodeProxy[node] = null;
+        return node;
+    }
+
+    // free nodes are chained through their parent index
+    private void freeNode(int node) {
+        nodeProxy[node] = null;
+        height[node] = -1;
+        parent[node] = freeList;
+        freeList = node;
+    }
+
+    private void grow() {
+        int oldCapacity = capacity;
+        int newCapacity = Math.max(INITIAL_CAPACITY, oldCapacity * 2);
+        if (newCapacity > parent.length) {
+            nodeMinX = Arrays.copyOf(nodeMinX, newCapacity);
+            nodeMinY = Arrays.copyOf(nodeMinY, newCapacity);
+            nodeMaxX = Arrays.copyOf(nodeMaxX, newCapacity);
+            nodeMaxY = Arrays.copyOf(nodeMaxY, newCapacity);
+            parent = Arrays.copyOf(parent, newCapacity);
+            child1 = Arrays.copyOf(child1, newCapacity);
+            child2 = Arrays.copyOf(child2, newCapacity);
+            height = Arrays.copyOf(height, newCapacity);
+            nodeProxy = Arrays.copyOf(nodeProxy, newCapacity);
+        }
+        for (int node = newCapacity - 1; node >= oldCapacity; node--) {
+            parent[node] = freeList;
+            height[node] = -1;
+            freeList = node;
+        }
+        capacity = newCapacity;
+    }
+}
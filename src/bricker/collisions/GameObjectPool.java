@@ -0,0 +1,203 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+import danogl.collisions.Collider;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Reuses GameObjects of one kind instead of allocating a new one (with its transform,
+ * renderer, physics and collider) for every short-lived object.
+ * {@link #acquire()} hands out an object that is not in use, creating one only if there is
+ * none. An object goes back to the pool when it is released, or, once the pool is added to a
+ * {@link BrickerGameObjectCollection} (see {@link BrickerGameObjectCollection#addPool}), as soon
+ * as its removal from the collection is applied.
+ * <p>
+ * The pool records the state of every object the factory creates (position, dimensions,
+ * tag, coordinate space, renderable, mass, collider and the direction intersections are
+ * prevented from), and every object it hands out is put back in that state first, at rest
+ * and drawn upright, unflipped and opaque.
+ * <p>
+ * Every time an object is handed out, it gets a new generation. A handle (see
+ * {@link #handleOf}) remembers the generation, so a reference kept past the object's release
+ * can be told apart from the object's next use.
+ * @param <T> The type of the objects.
+ */
+public class GameObjectPool<T extends GameObject> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int SLOT_BITS = 32;
+
+    private final Supplier<T> factory;
+    private final Consumer<? super T> reset;
+    private final Map<GameObject, Integer> slotOf = new IdentityHashMap<>();
+    // for each slot
+    private GameObject[] objects = new GameObject[INITIAL_CAPACITY];
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private boolean[] isInUse = new boolean[INITIAL_CAPACITY];
+    private FactoryState[] factoryStates = new FactoryState[INITIAL_CAPACITY];
+    private int slotCount;
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeSlotCount;
+
+    /**
+     * Constructor for the pool.
+     * @param factory Creates a new object when the pool has none to reuse.
+     * @param reset   Called on every object the pool hands out, after it is put back in the
+     *                state the factory created it in. It should restore what the pool doesn't
+     *                know about: the fields of the object's own class, and its components.
+     *                Can be null.
+     */
+    public GameObjectPool(Supplier<T> factory, Consumer<? super T> reset) {
+        this.factory = factory;
+        this.reset = reset;
+    }
+
+    /**
+     * Hands out an object that is not in use, reset.
+     * @return the object.
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        int slot;
+        if (freeSlotCount > 0) {
+            slot = freeSlots[--freeSlotCount];
+        } else {
+            if (slotCount == objects.length) {
+                objects = Arrays.copyOf(objects, slotCount * 2);
+                generations = Arrays.copyOf(generations, slotCount * 2);
+                isInUse = Arrays.copyOf(isInUse, slotCount * 2);
+                factoryStates = Arrays.copyOf(factoryStates, slotCount * 2);
+            }
+            slot = slotCount++;
+            objects[slot] = factory.get();
+            factoryStates[slot] = new FactoryState(objects[slot]);
+            slotOf.put(objects[slot], slot);
+        }
+        T obj = (T) objects[slot];
+        isInUse[slot] = true;
+        generations[slot]++;
+        resetObject(obj, factoryStates[slot]);
+        return obj;
+    }
+
+    /**
+     * Returns an object to the pool. It must not be in any collection.
+     * @param obj The object to return.
+     * @return false if the object didn't come from this pool, or is already released.
+     */
+    public boolean release(T obj) {
+        return releaseObject(obj);
+    }
+
+    /**
+     * @return a handle to an object in use, or 0 if the object isn't one.
+     */
+    public long handleOf(T obj) {
+        Integer slot = slotOf.get(obj);
+        if (slot == null || !isInUse[slot]) {
+            return 0;
+        }
+        return ((long) generations[slot] << SLOT_BITS) | slot;
+    }
+
+    /**
+     * @return the object of a handle, or null if it was released since the handle was made.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(long handle) {
+        int slot = (int) handle;
+        int generation = (int) (handle >>> SLOT_BITS);
+        if (slot < 0 || slot >= slotCount || !isInUse[slot] || generations[slot] != generation) {
+            return null;
+        }
+        return (T) objects[slot];
+    }
+
+    /**
+     * @return the number of objects handed out and not released.
+     */
+    public int inUse() {
+        return slotCount - freeSlotCount;
+    }
+
+    /**
+     * @return the number of objects waiting to be reused.
+     */
+    public int available() {
+        return freeSlotCount;
+    }
+
+    /**
+     * Releases an object if it came from this pool, for a collection that applied its removal.
+     */
+    boolean releaseObject(GameObject obj) {
+        Integer slot = slotOf.get(obj);
+        if (slot == null || !isInUse[slot]) {
+            return false;
+        }
+        isInUse[slot] = false;
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+        return true;
+    }
+
+    private void resetObject(T obj, FactoryState state) {
+        obj.setVelocity(Vector2.ZERO);
+        obj.transform().setAcceleration(Vector2.ZERO);
+        // the transform moves by the velocity it had on its last update, not by the current
+        // one; updating it at rest, for no time, forgets that velocity
+        obj.transform().update(0);
+        obj.transform().setAccelerationEnabled(true);
+        obj.setDimensions(state.dimensions);
+        obj.setTopLeftCorner(state.topLeftCorner);
+        obj.setTag(state.tag);
+        obj.setCoordinateSpace(state.coordinateSpace);
+        obj.renderer().setRenderable(state.renderable);
+        obj.physics().setMass(state.mass);
+        obj.physics().setCollider(state.collider);
+        obj.physics().preventIntersectionsFromDirection(state.preventedDirection);
+        obj.renderer().setRenderableAngle(0);
+        obj.renderer().setIsFlippedHorizontally(false);
+        obj.renderer().setIsFlippedVertically(false);
+        obj.renderer().setOpaqueness(1);
+        if (reset != null) {
+            reset.accept(obj);
+        }
+    }
+
+    /*
+     * The state of an object when the factory created it. The vectors are copied, in case
+     * the object hands out vectors it changes later.
+     */
+    private static final class FactoryState {
+        private final Vector2 topLeftCorner;
+        private final Vector2 dimensions;
+        private final String tag;
+        private final CoordinateSpace coordinateSpace;
+        private final Renderable renderable;
+        private final float mass;
+        private final Collider collider;
+        private final Vector2 preventedDirection;
+
+        FactoryState(GameObject obj) {
+            topLeftCorner = new Vector2(obj.getTopLeftCorner());
+            dimensions = new Vector2(obj.getDimensions());
+            tag = obj.getTag();
+            coordinateSpace = obj.getCoordinateSpace();
+            renderable = obj.renderer().getRenderable();
+            mass = obj.physics().mass();
+            collider = obj.physics().collider();
+            Vector2 direction = obj.physics().directionFromWhichIntersectionsArePrevented();
+            preventedDirection = direction == null ? null : new Vector2(direction);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package bricker.collisions;
+
+import java.util.Arrays;
+
+/**
+ * package-private. A map from objects, compared by identity, to non-negative ints. Unlike an
+ * IdentityHashMap of Integers, it keeps the values unboxed, so putting a value never
+ * allocates once the table is big enough for the keys.
+ * <p>
+ * The keys are kept in a single table with linear probing; removing a key moves the keys
+ * after it back, so a lookup never has to step over removed entries.
+ * @param <K> The type of the keys.
+ */
+class IdentityIntMap<K> {
+    /**
+     * What {@link #get} and {@link #remove} return for a key that isn't in the map.
+     */
+    static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 32;
+    // the table is at most half full
+    private static final int MAX_LOAD_SHIFT = 1;
+
+    private Object[] keys = new Object[INITIAL_CAPACITY];
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * @return the value of the key, or {@link #NONE} if the key isn't in the map.
+     */
+    int get(K key) {
+        int index = indexOf(key);
+        return keys[index] == null ? NONE : values[index];
+    }
+
+    /**
+     * @return whether the key is in the map.
+     */
+    boolean containsKey(K key) {
+        return keys[indexOf(key)] != null;
+    }
+
+    /**
+     * Maps the key to the value, replacing any value it had.
+     * @param value The value, which must not be negative.
+     */
+    void put(K key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        int index = indexOf(key);
+        if (keys[index] == null) {
+            if ((size + 1) << MAX_LOAD_SHIFT > keys.length) {
+                grow();
+                index = indexOf(key);
+            }
+            keys[index] = key;
+            size++;
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Removes the key from the map.
+     * @return the value the key had, or {@link #NONE} if the key wasn't in the map.
+     */
+    int remove(K key) {
+        int index = indexOf(key);
+        if (keys[index] == null) {
+            return NONE;
+        }
+        int value = values[index];
+        int mask = keys.length - 1;
+        // moves back every key of the run after the removed one that may move to the hole
+        int hole = index;
+        for (int next = (hole + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            int home = homeOf(keys[next]);
+            // the key may fill the hole if the hole is between its home and its slot
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = null;
+        size--;
+        return value;
+    }
+
+    /**
+     * Removes every key.
+     */
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, null);
+            size = 0;
+        }
+    }
+
+    /*
+     * The slot of the key, or the empty slot where it would be put.
+     */
+    private int indexOf(Object key) {
+        int mask = keys.length - 1;
+        int index = homeOf(key);
+        while (keys[index] != null && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    // the identity hash codes of objects allocated together are often close, so they are mixed
+    private int homeOf(Object key) {
+        int hash = System.identityHashCode(key) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (keys.length - 1);
+    }
+
+    private void grow() {
+        Object[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new Object[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+
+/**
+ * package-private. Where a swept object touched what it hit, relative to where it was stopped.
+ * A swept object is stopped just short of its impact, so its box no longer overlaps what it
+ * hit. While the collection handles the pairs of that object, the AABB contacts it shares
+ * (see {@link AabbContact}) read its box shifted by this offset, slightly into what it hit,
+ * so the contact is reported as if the boxes overlapped.
+ */
+class ImpactOffset {
+    private GameObject gameObject;
+    private float x, y;
+
+    /**
+     * Shifts the box of an object until {@link #clear()} is called.
+     */
+    void set(GameObject gameObject, float x, float y) {
+        this.gameObject = gameObject;
+        this.x = x;
+        this.y = y;
+    }
+
+    void clear() {
+        gameObject = null;
+    }
+
+    /**
+     * @return the horizontal offset of the object's box, or 0 if it isn't shifted.
+     */
+    float x(GameObject obj) {
+        return obj == gameObject ? x : 0;
+    }
+
+    /**
+     * @return the vertical offset of the object's box, or 0 if it isn't shifted.
+     */
+    float y(GameObject obj) {
+        return obj == gameObject ? y : 0;
+    }
+}
@@ -0,0 +1,281 @@
+package bricker.collisions;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * A list with the deferred additions and removals of the library's ModifiableList, without
+ * its linear searches. Elements are added and removed through {@link #add} and
+ * {@link #remove}, but the list only changes on {@link #flushChanges()}: removals first,
+ * then additions, in the order they were made.
+ * <p>
+ * Every element remembers its slot in an identity map, so adding, removing and looking up an
+ * element take constant time, and a flush compacts the list in a single pass that keeps the
+ * order of the remaining elements. As with every ModifiableList the library makes, an element
+ * can't be in the list twice; elements are compared by identity, not by equals.
+ * <p>
+ * Like ModifiableList, iterating the list doesn't allocate unless another iteration is already
+ * in progress. Neither do adding, removing and flushing, once the list has grown to hold its
+ * elements: the slots are kept unboxed. The list isn't thread-safe.
+ * @param <E> The type of the elements.
+ */
+public class IndexedList<E> implements Iterable<E> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] elements = new Object[INITIAL_CAPACITY];
+    private boolean[] isPendingRemoval = new boolean[INITIAL_CAPACITY];
+    private int size;
+    private int pendingRemovalCount;
+    // the slot of every element in the list
+    private final IdentityIntMap<E> slots = new IdentityIntMap<>();
+    // pending additions, in order; a cancelled addition leaves its element here, but not in
+    // additionIndex
+    private Object[] additions = new Object[INITIAL_CAPACITY];
+    private int additionCount;
+    private final IdentityIntMap<E> additionIndex = new IdentityIntMap<>();
+    private final ReusableIterator iterator = new ReusableIterator();
+    private Iterable<E> reverseIterable;
+    private List<E> listView;
+
+    /**
+     * Queues an element to be added on the next flush.
+     * @return false if the element is already in the list (even if it is about to be removed)
+     * or about to be added.
+     */
+    public boolean add(E item) {
+        if (slots.containsKey(item) || additionIndex.containsKey(item)) {
+            return false;
+        }
+        if (additionCount == additions.length) {
+            additions = Arrays.copyOf(additions, additionCount * 2);
+        }
+        additionIndex.put(item, additionCount);
+        additions[additionCount++] = item;
+        return true;
+    }
+
+    /**
+     * Queues an element to be removed on the next flush, or cancels its pending addition.
+     * @return false if the element is neither in the list nor about to be added, or is already
+     * about to be removed.
+     */
+    public boolean remove(E item) {
+        if (additionIndex.remove(item) != IdentityIntMap.NONE) {
+            return true;
+        }
+        int slot = slots.get(item);
+        if (slot == IdentityIntMap.NONE || isPendingRemoval[slot]) {
+            return false;
+        }
+        isPendingRemoval[slot] = true;
+        pendingRemovalCount++;
+        return true;
+    }
+
+    /**
+     * Applies the pending removals, then the pending additions.
+     */
+    public void flushChanges() {
+        if (pendingRemovalCount > 0) {
+            compact();
+        }
+        for (int i = 0; i < additionCount; i++) {
+            @SuppressWarnings("unchecked")
+            E item = (E) additions[i];
+            additions[i] = null;
+            // skip cancelled additions, and earlier additions of an element added again
+            if (additionIndex.get(item) != i) {
+                continue;
+            }
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+                isPendingRemoval = Arrays.copyOf(isPendingRemoval, size * 2);
+            }
+            slots.put(item, size);
+            elements[size++] = item;
+        }
+        additionCount = 0;
+        additionIndex.clear();
+    }
+
+    /**
+     * Removes every element, and cancels the pending additions, right away.
+     */
+    public void clear() {
+        Arrays.fill(elements, 0, size, null);
+        Arrays.fill(isPendingRemoval, 0, size, false);
+        Arrays.fill(additions, 0, additionCount, null);
+        size = 0;
+        pendingRemovalCount = 0;
+        additionCount = 0;
+        slots.clear();
+        additionIndex.clear();
+    }
+
+    /**
+     * @return the element at the given index of the list, as of the last flush.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size "
+                    + size);
+        }
+        return (E) elements[index];
+    }
+
+    /**
+     * @return the number of elements in the list, as of the last flush.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the element will be in the list after the next flush.
+     */
+    public boolean contains(E item) {
+        if (additionIndex.containsKey(item)) {
+            return true;
+        }
+        int slot = slots.get(item);
+        return slot != IdentityIntMap.NONE && !isPendingRemoval[slot];
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        if (iterator.tryReset(0, 1, size)) {
+            return iterator;
+        }
+        ReusableIterator newIterator = new ReusableIterator();
+        newIterator.tryReset(0, 1, size);
+        return newIterator;
+    }
+
+    /**
+     * @return the elements in reverse order, as of the last flush.
+     */
+    public Iterable<E> reverseOrder() {
+        if (reverseIterable == null) {
+            reverseIterable = () -> {
+                if (iterator.tryReset(size - 1, -1, -1)) {
+                    return iterator;
+                }
+                ReusableIterator newIterator = new ReusableIterator();
+                newIterator.tryReset(size - 1, -1, -1);
+                return newIterator;
+            };
+        }
+        return reverseIterable;
+    }
+
+    /**
+     * @return the first element (in the list, then among the pending additions) that isn't
+     * about to be removed and satisfies the predicate, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public E findFirst(Predicate<E> predicate) {
+        for (int i = 0; i < size; i++) {
+            if (!isPendingRemoval[i] && predicate.test((E) elements[i])) {
+                return (E) elements[i];
+            }
+        }
+        for (int i = 0; i < additionCount; i++) {
+            E item = (E) additions[i];
+            if (additionIndex.get(item) == i && predicate.test(item)) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a read-only view of the list, as of the last flush. The view follows later
+     * flushes.
+     */
+    public List<E> asList() {
+        if (listView == null) {
+            listView = new ListView();
+        }
+        return listView;
+    }
+
+    /*
+     * Drops the elements pending removal, moving the others down without changing their order.
+     */
+    private void compact() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            @SuppressWarnings("unchecked")
+            E item = (E) elements[i];
+            if (isPendingRemoval[i]) {
+                isPendingRemoval[i] = false;
+                slots.remove(item);
+                continue;
+            }
+            if (kept != i) {
+                elements[kept] = item;
+                slots.put(item, kept);
+            }
+            kept++;
+        }
+        Arrays.fill(elements, kept, size, null);
+        size = kept;
+        pendingRemovalCount = 0;
+    }
+
+    private class ReusableIterator implements Iterator<E> {
+        private int index;
+        private int indexStep;
+        private int endIndex;
+        private boolean isIterating;
+
+        boolean tryReset(int startIndex, int indexStep, int endIndex) {
+            if (isIterating) {
+                return false;
+            }
+            this.index = startIndex;
+            this.indexStep = indexStep;
+            this.endIndex = endIndex;
+            // an iteration that is never finished keeps this iterator busy, so later ones
+            // get their own
+            isIterating = index != endIndex;
+            return true;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index != endIndex;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E element = get(index);
+            index += indexStep;
+            if (!hasNext()) {
+                isIterating = false;
+            }
+            return element;
+        }
+    }
+
+    private class ListView extends AbstractList<E> implements RandomAccess {
+        @Override
+        public E get(int index) {
+            return IndexedList.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
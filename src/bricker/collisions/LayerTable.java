@@ -0,0 +1,103 @@
+package bricker.collisions;
+
+import danogl.collisions.LayerManager;
+
+import java.util.Arrays;
+
+/**
+ * package-private. A dense copy of the layer collision matrix of a {@link LayerManager}.
+ * Every layer the collection meets is given a slot between 0 and 63, found from its id through
+ * a small open-addressing table, and the layers a layer collides with are stored as the bits
+ * of one long. Checking whether two layers collide is then a shift and a mask, with no boxing
+ * and no searching through the library's list of layers.
+ * <p>
+ * Up to {@value #MAX_LAYERS} layers get a slot; further layers are left to the LayerManager.
+ */
+class LayerTable {
+    /**
+     * The slot of layers the table has no room for.
+     */
+    static final int NO_SLOT = -1;
+    static final int MAX_LAYERS = Long.SIZE;
+
+    // twice the number of layers, so probe sequences stay short
+    private static final int TABLE_SIZE = 2 * MAX_LAYERS;
+
+    private final int[] keys = new int[TABLE_SIZE];
+    private final int[] slotsByKey = new int[TABLE_SIZE];
+    private final int[] layerIds = new int[MAX_LAYERS];
+    private final long[] collisionMasks = new long[MAX_LAYERS];
+    private int layerCount;
+
+    LayerTable() {
+        Arrays.fill(slotsByKey, NO_SLOT);
+    }
+
+    /**
+     * @return the slot of a layer, or NO_SLOT if it hasn't been added.
+     */
+    int slotOf(int layerId) {
+        for (int index = hash(layerId); slotsByKey[index] != NO_SLOT;
+             index = (index + 1) & (TABLE_SIZE - 1)) {
+            if (keys[index] == layerId) {
+                return slotsByKey[index];
+            }
+        }
+        return NO_SLOT;
+    }
+
+    /**
+     * Gives a layer a slot, and reads which of the known layers it collides with.
+     * @return the slot of the layer, or NO_SLOT if the table is full.
+     */
+    int addLayer(int layerId, LayerManager layers) {
+        int existing = slotOf(layerId);
+        if (existing != NO_SLOT || layerCount == MAX_LAYERS) {
+            return existing;
+        }
+        int slot = layerCount++;
+        int index = hash(layerId);
+        while (slotsByKey[index] != NO_SLOT) {
+            index = (index + 1) & (TABLE_SIZE - 1);
+        }
+        keys[index] = layerId;
+        slotsByKey[index] = slot;
+        layerIds[slot] = layerId;
+        collisionMasks[slot] = 0;
+        for (int other = 0; other < layerCount; other++) {
+            setCollision(slot, other, layers.doLayersCollide(layerId, layerIds[other]));
+        }
+        return slot;
+    }
+
+    /**
+     * Sets whether the layers in two slots collide, in both directions.
+     */
+    void setCollision(int slot1, int slot2, boolean shouldCollide) {
+        if (shouldCollide) {
+            collisionMasks[slot1] |= 1L << slot2;
+            collisionMasks[slot2] |= 1L << slot1;
+        } else {
+            collisionMasks[slot1] &= ~(1L << slot2);
+            collisionMasks[slot2] &= ~(1L << slot1);
+        }
+    }
+
+    /**
+     * @return true if the layers in the two slots collide.
+     */
+    boolean doSlotsCollide(int slot1, int slot2) {
+        return (collisionMasks[slot1] & (1L << slot2)) != 0;
+    }
+
+    /**
+     * @return true if the layer in the slot collides with at least one layer.
+     */
+    boolean collidesWithAnything(int slot) {
+        return collisionMasks[slot] != 0;
+    }
+
+    private static int hash(int layerId) {
+        return (layerId * 0x9E3779B9 >>> 16) & (TABLE_SIZE - 1);
+    }
+}
@@ -0,0 +1,35 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * package-private. The {@link GameObjectPool}s added to a {@link BrickerGameObjectCollection},
+ * which get their objects back once the collection applies their removal.
+ */
+class PoolRegistry {
+    private final List<GameObjectPool<?>> pools = new ArrayList<>();
+
+    /**
+     * See {@link BrickerGameObjectCollection#addPool}.
+     */
+    void add(GameObjectPool<?> pool) {
+        if (!pools.contains(pool)) {
+            pools.add(pool);
+        }
+    }
+
+    /**
+     * Returns a removed object to the pool it came from, if it came from one.
+     * @param obj An object whose removal from the collection was just applied.
+     */
+    void release(GameObject obj) {
+        for (int i = 0; i < pools.size(); i++) {
+            if (pools.get(i).releaseObject(obj)) {
+                return;
+            }
+        }
+    }
+}
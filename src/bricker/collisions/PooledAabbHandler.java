@@ -0,0 +1,69 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+import danogl.collisions.AABB.AABBCollider;
+import danogl.collisions.PairCollisionData;
+import danogl.collisions.PairCollisionHandler;
+
+/**
+ * package-private. Creates the collision data of two objects whose colliders are AABBs, like
+ * the library's AABB handler, but takes it from a {@link ContactPool} of {@link AabbContact}s
+ * instead of allocating it, so a game in a steady state allocates nothing for its collisions.
+ * A contact that is no longer needed must be retired (see {@link #retire}), and retired
+ * contacts recycled when no callbacks are running (see {@link #recycleRetired()}).
+ */
+class PooledAabbHandler implements PairCollisionHandler {
+    private final ContactPool<AabbContact> pool;
+
+    /**
+     * Constructor for the handler.
+     * @param impactOffset The offset of the swept object whose impact is being handled.
+     */
+    PooledAabbHandler(ImpactOffset impactOffset) {
+        this.pool = new ContactPool<>(AabbContact.class, () -> new AabbContact(impactOffset));
+    }
+
+    @Override
+    public PairCollisionData computeCollisionData(GameObject go1, GameObject go2) {
+        if (!supportsPair(go1, go2)) {
+            return null;
+        }
+        AabbContact contact = pool.take(go1, go2);
+        if (!contact.areColliding()) {
+            pool.giveBack(contact);
+            return null;
+        }
+        return contact;
+    }
+
+    /**
+     * Takes a contact from the pool for two objects whose numbers of the frame were already
+     * computed (see {@link AabbContact#setValues}), and found intersecting.
+     */
+    AabbContact createContact(GameObject go1, GameObject go2, float[] values, int offset) {
+        AabbContact contact = pool.take(go1, go2);
+        contact.setValues(values, offset, true);
+        return contact;
+    }
+
+    @Override
+    public boolean supportsPair(GameObject go1, GameObject go2) {
+        return go1.physics().collider().colliderType().equals(AABBCollider.AABB_COLLIDER_TYPE)
+                && go2.physics().collider().colliderType().equals(AABBCollider.AABB_COLLIDER_TYPE);
+    }
+
+    /**
+     * Marks the collision data of a pair that stopped colliding as no longer needed. Data that
+     * didn't come from this handler (including subclasses of AabbContact) is ignored.
+     */
+    void retire(PairCollisionData data) {
+        pool.retire(data);
+    }
+
+    /**
+     * Returns the retired contacts to the pool.
+     */
+    void recycleRetired() {
+        pool.recycleRetired();
+    }
+}
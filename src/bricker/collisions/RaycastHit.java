@@ -0,0 +1,50 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+
+/**
+ * The result of {@link BrickerGameObjectCollection#raycast}: the object a ray hit first, how far
+ * along the ray it was hit, and where. A single instance can be reused for any number of
+ * raycasts, so casting rays allocates nothing.
+ */
+public class RaycastHit {
+    private GameObject gameObject;
+    private float distance;
+    private float pointX, pointY;
+
+    /**
+     * @return the object that was hit, or null if the last raycast hit nothing.
+     */
+    public GameObject gameObject() {
+        return gameObject;
+    }
+
+    /**
+     * @return the distance from the origin of the ray to the hit point. 0 if the ray started
+     * inside the object.
+     */
+    public float distance() {
+        return distance;
+    }
+
+    /**
+     * @return the x coordinate of the point where the ray entered the object.
+     */
+    public float pointX() {
+        return pointX;
+    }
+
+    /**
+     * @return the y coordinate of the point where the ray entered the object.
+     */
+    public float pointY() {
+        return pointY;
+    }
+
+    void set(GameObject gameObject, float distance, float pointX, float pointY) {
+        this.gameObject = gameObject;
+        this.distance = distance;
+        this.pointX = pointX;
+        this.pointY = pointY;
+    }
+}
@@ -0,0 +1,180 @@
+package bricker.collisions;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * A broadphase backed by a uniform spatial hash grid.
+ * Every frame, each proxy is inserted into the grid cells its bounding box covers, and only
+ * proxies that share a cell are reported as pairs. A pair that shares several cells is
+ * reported only from the first of them (the top-left cell of the overlap of their cell
+ * ranges), so no pair is reported twice.
+ * <p>
+ * The cell size should be about the size of the common moving objects: much smaller cells
+ * make big objects cover many cells, much bigger cells put many objects in the same cell.
+ * Objects that cover too many cells (for example a full-screen object) are kept out of the
+ * grid and paired with everything instead.
+ */
+public class SpatialHashBroadphase implements Broadphase {
+    private static final int MAX_CELLS_PER_PROXY = 256;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int HASH_PRIME_X = 73856093;
+    private static final int HASH_PRIME_Y = 19349663;
+    private static final long ENTRY_INDEX_MASK = 0xffffffffL;
+
+    private final float inverseCellSize;
+
+    // Grid entries, one per (proxy, cell). Sorting the keys groups entries by cell hash.
+    private long[] entryKeys = new long[INITIAL_CAPACITY];
+    private int[] entryCellX = new int[INITIAL_CAPACITY];
+    private int[] entryCellY = new int[INITIAL_CAPACITY];
+    private int[] entryProxy = new int[INITIAL_CAPACITY];
+    private int entryCount;
+
+    // Per proxy (by its index in the list): the first cell it covers, and whether it's oversized.
+    private int[] firstCellX = new int[INITIAL_CAPACITY];
+    private int[] firstCellY = new int[INITIAL_CAPACITY];
+    private boolean[] isOversized = new boolean[INITIAL_CAPACITY];
+    private int[] oversized = new int[INITIAL_CAPACITY];
+    private int oversizedCount;
+
+    /**
+     * Constructor for the broadphase.
+     * @param cellSize Width and height of a grid cell, in pixels.
+     */
+    public SpatialHashBroadphase(float cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.inverseCellSize = 1f / cellSize;
+    }
+
+    @Override
+    public void findPairs(List<CollisionProxy> proxies,
+                          BiConsumer<CollisionProxy, CollisionProxy> pairHandler) {
+        fillGrid(proxies);
+        Arrays.sort(entryKeys, 0, entryCount);
+        reportCellPairs(proxies, pairHandler);
+        reportOversizedPairs(proxies, pairHandler);
+    }
+
+    /*
+     * Inserts every proxy into the cells it covers.
+     */
+    private void fillGrid(List<CollisionProxy> proxies) {
+        entryCount = 0;
+        oversizedCount = 0;
+        if (firstCellX.length < proxies.size()) {
+            firstCellX = new int[proxies.size() * 2];
+            firstCellY = new int[proxies.size() * 2];
+            isOversized = new boolean[proxies.size() * 2];
+        }
+        for (int index = 0; index < proxies.size(); index++) {
+            CollisionProxy proxy = proxies.get(index);
+            int x0 = cellOf(proxy.minX());
+            int y0 = cellOf(proxy.minY());
+            int x1 = cellOf(proxy.maxX());
+            int y1 = cellOf(proxy.maxY());
+            firstCellX[index] = x0;
+            firstCellY[index] = y0;
+            isOversized[index] = (long) (x1 - x0 + 1) * (y1 - y0 + 1) > MAX_CELLS_PER_PROXY;
+            if (isOversized[index]) {
+                addOversized(index);
+                continue;
+            }
+            for (int cellY = y0; cellY <= y1; cellY++) {
+                for (int cellX = x0; cellX <= x1; cellX++) {
+                    addEntry(cellX, cellY, index);
+                }
+            }
+        }
+    }
+
+    /*
+     * Walks the runs of entries with the same hash, and reports the pairs that share a cell.
+     */
+    private void reportCellPairs(List<CollisionProxy> proxies,
+                                 BiConsumer<CollisionProxy, CollisionProxy> pairHandler) {
+        int runStart = 0;
+        while (runStart < entryCount) {
+            int hash = (int) (entryKeys[runStart] >> 32);
+            int runEnd = runStart + 1;
+            while (runEnd < entryCount && (int) (entryKeys[runEnd] >> 32) == hash) {
+                runEnd++;
+            }
+            for (int first = runStart; first < runEnd; first++) {
+                int entry1 = (int) (entryKeys[first] & ENTRY_INDEX_MASK);
+                for (int second = first + 1; second < runEnd; second++) {
+                    int entry2 = (int) (entryKeys[second] & ENTRY_INDEX_MASK);
+                    if (isPairReportedHere(entry1, entry2)) {
+                        pairHandler.accept(proxies.get(entryProxy[entry1]),
+                                proxies.get(entryProxy[entry2]));
+                    }
+                }
+            }
+            runStart = runEnd;
+        }
+    }
+
+    /*
+     * Two entries in the same hash run may still be in different cells. A pair is reported
+     * only from the first cell both proxies cover.
+     */
+    private boolean isPairReportedHere(int entry1, int entry2) {
+        int cellX = entryCellX[entry1];
+        int cellY = entryCellY[entry1];
+        if (cellX != entryCellX[entry2] || cellY != entryCellY[entry2]) {
+            return false;
+        }
+        int proxy1 = entryProxy[entry1];
+        int proxy2 = entryProxy[entry2];
+        return cellX == Math.max(firstCellX[proxy1], firstCellX[proxy2])
+                && cellY == Math.max(firstCellY[proxy1], firstCellY[proxy2]);
+    }
+
+    /*
+     * Oversized proxies are not in the grid, so they are paired with every other proxy.
+     */
+    private void reportOversizedPairs(List<CollisionProxy> proxies,
+                                      BiConsumer<CollisionProxy, CollisionProxy> pairHandler) {
+        for (int i = 0; i < oversizedCount; i++) {
+            int bigIndex = oversized[i];
+            CollisionProxy big = proxies.get(bigIndex);
+            for (int index = 0; index < proxies.size(); index++) {
+                // pairs of two oversized proxies are reported by the one with the lower index
+                if (index == bigIndex || (isOversized[index] && index < bigIndex)) {
+                    continue;
+                }
+                pairHandler.accept(big, proxies.get(index));
+            }
+        }
+    }
+
+    private void addEntry(int cellX, int cellY, int proxyIndex) {
+        if (entryCount == entryKeys.length) {
+            int newLength = entryKeys.length * 2;
+            entryKeys = Arrays.copyOf(entryKeys, newLength);
+            entryCellX = Arrays.copyOf(entryCellX, newLength);
+            entryCellY = Arrays.copyOf(entryCellY, newLength);
+            entryProxy = Arrays.copyOf(entryProxy, newLength);
+        }
+        int hash = cellX * HASH_PRIME_X ^ cellY * HASH_PRIME_Y;
+        entryKeys[entryCount] = ((long) hash << 32) | entryCount;
+        entryCellX[entryCount] = cellX;
+        entryCellY[entryCount] = cellY;
+        entryProxy[entryCount] = proxyIndex;
+        entryCount++;
+    }
+
+    private void addOversized(int proxyIndex) {
+        if (oversizedCount == oversized.length) {
+            oversized = Arrays.copyOf(oversized, oversized.length * 2);
+        }
+        oversized[oversizedCount++] = proxyIndex;
+    }
+
+    private int cellOf(float coordinate) {
+        return (int) Math.floor(coordinate * inverseCellSize);
+    }
+}
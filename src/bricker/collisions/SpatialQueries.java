@@ -0,0 +1,209 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * package-private. The spatial queries of a {@link BrickerGameObjectCollection}: objects in a
+ * rectangle or under a point, the first object along a ray, and the nearest object to a point.
+ * <p>
+ * The queries are answered from a {@link DynamicAabbTree} of every proxy in the collection,
+ * including static and inert ones. The tree is only built on the first query, so a collection
+ * that is never queried pays nothing for it. After that, the collection tells the queries
+ * about the proxies it registers and unregisters, and marks the tree stale whenever objects
+ * may have moved; the next query then moves the leaves of the proxies whose version changed.
+ * Static objects are assumed not to move.
+ */
+class SpatialQueries {
+    private static final float TREE_MARGIN = 8f;
+    private static final int NO_LEAF = -1;
+
+    private final Collection<CollisionProxy> allProxies;
+    private final IndexedList<CollisionProxy> dynamicProxies;
+    private final IndexedList<CollisionProxy> inertProxies;
+    // built on the first query
+    private DynamicAabbTree tree;
+    private int[] leafById = new int[16];
+    // the version of each proxy when its leaf was last updated
+    private int[] versionById = new int[16];
+    private boolean isStale;
+    private final Consumer<CollisionProxy> rectCollector = this::collectIfOverlapping;
+    private final DynamicAabbTree.ProxyDistance rayDistance = this::rayDistanceTo;
+    private final DynamicAabbTree.ProxyDistance pointDistance = this::pointDistanceTo;
+    // the query being answered
+    private float minX, minY, maxX, maxY;
+    private float directionX, directionY;
+    private List<GameObject> results;
+    private Predicate<GameObject> filter;
+
+    /**
+     * Constructor for the queries.
+     * @param allProxies     Every proxy of the collection; read when the tree is built.
+     * @param dynamicProxies The proxies of moving objects.
+     * @param inertProxies   The proxies of objects in layers that collide with nothing, which
+     *                       may move too.
+     */
+    SpatialQueries(Collection<CollisionProxy> allProxies,
+                   IndexedList<CollisionProxy> dynamicProxies,
+                   IndexedList<CollisionProxy> inertProxies) {
+        this.allProxies = allProxies;
+        this.dynamicProxies = dynamicProxies;
+        this.inertProxies = inertProxies;
+    }
+
+    /**
+     * Tells the queries that objects may have moved since the last query.
+     */
+    void markStale() {
+        isStale = true;
+    }
+
+    /**
+     * Adds the leaf of a newly registered proxy, if the tree is built.
+     */
+    void proxyAdded(CollisionProxy proxy) {
+        if (tree != null) {
+            insertLeaf(proxy);
+        }
+    }
+
+    /**
+     * Removes the leaf of an unregistered proxy, if the tree is built. Must be called while
+     * the proxy still has its id.
+     */
+    void proxyRemoved(CollisionProxy proxy) {
+        if (tree != null) {
+            tree.remove(leafById[proxy.id()]);
+            leafById[proxy.id()] = NO_LEAF;
+        }
+    }
+
+    /**
+     * See {@link BrickerGameObjectCollection#queryRect}.
+     */
+    int queryRect(Vector2 topLeftCorner, Vector2 dimensions, List<GameObject> results) {
+        refreshTree();
+        results.clear();
+        minX = topLeftCorner.x();
+        minY = topLeftCorner.y();
+        maxX = minX + dimensions.x();
+        maxY = minY + dimensions.y();
+        this.results = results;
+        tree.query(minX, minY, maxX, maxY, rectCollector);
+        this.results = null;
+        return results.size();
+    }
+
+    /**
+     * See {@link BrickerGameObjectCollection#raycast}.
+     */
+    boolean raycast(Vector2 origin, Vector2 direction, float maxDistance,
+                    Predicate<GameObject> filter, RaycastHit hit) {
+        float length = direction.magnitude();
+        if (length == 0) {
+            throw new IllegalArgumentException("The direction of a ray can't be zero");
+        }
+        refreshTree();
+        minX = origin.x();
+        minY = origin.y();
+        directionX = direction.x() / length;
+        directionY = direction.y() / length;
+        this.filter = filter;
+        CollisionProxy closest = tree.raycast(minX, minY, directionX, directionY,
+                maxDistance, rayDistance);
+        this.filter = null;
+        if (closest == null) {
+            hit.set(null, 0, 0, 0);
+            return false;
+        }
+        float distance = rayDistanceTo(closest);
+        hit.set(closest.gameObject(), distance,
+                minX + directionX * distance, minY + directionY * distance);
+        return true;
+    }
+
+    /**
+     * See {@link BrickerGameObjectCollection#nearest}.
+     */
+    GameObject nearest(Vector2 point, Predicate<GameObject> filter) {
+        refreshTree();
+        minX = point.x();
+        minY = point.y();
+        this.filter = filter;
+        CollisionProxy nearest = tree.nearest(minX, minY, Float.POSITIVE_INFINITY,
+                pointDistance);
+        this.filter = null;
+        return nearest == null ? null : nearest.gameObject();
+    }
+
+    /*
+     * Builds the tree on first use; afterwards, moves the leaves of the objects that moved
+     * since the last query.
+     */
+    private void refreshTree() {
+        if (tree == null) {
+            tree = new DynamicAabbTree(TREE_MARGIN);
+            for (CollisionProxy proxy : allProxies) {
+                insertLeaf(proxy);
+            }
+        } else if (isStale) {
+            for (CollisionProxy proxy : dynamicProxies) {
+                updateLeaf(proxy);
+            }
+            for (CollisionProxy proxy : inertProxies) {
+                updateLeaf(proxy);
+            }
+        }
+        isStale = false;
+    }
+
+    private void insertLeaf(CollisionProxy proxy) {
+        if (proxy.id() >= leafById.length) {
+            int oldLength = leafById.length;
+            leafById = Arrays.copyOf(leafById, Math.max(proxy.id() + 1, oldLength * 2));
+            Arrays.fill(leafById, oldLength, leafById.length, NO_LEAF);
+            versionById = Arrays.copyOf(versionById, leafById.length);
+        }
+        proxy.refreshBounds();
+        leafById[proxy.id()] = tree.insert(proxy);
+        versionById[proxy.id()] = proxy.version();
+    }
+
+    // only the leaves of proxies whose boxes changed are moved
+    private void updateLeaf(CollisionProxy proxy) {
+        proxy.refreshBounds();
+        if (versionById[proxy.id()] != proxy.version()) {
+            tree.update(leafById[proxy.id()]);
+            versionById[proxy.id()] = proxy.version();
+        }
+    }
+
+    private void collectIfOverlapping(CollisionProxy proxy) {
+        if (proxy.minX() <= maxX && minX <= proxy.maxX()
+                && proxy.minY() <= maxY && minY <= proxy.maxY()) {
+            results.add(proxy.gameObject());
+        }
+    }
+
+    private float rayDistanceTo(CollisionProxy proxy) {
+        if (filter != null && !filter.test(proxy.gameObject())) {
+            return Float.POSITIVE_INFINITY;
+        }
+        return DynamicAabbTree.rayDistance(minX, minY, directionX, directionY,
+                proxy.minX(), proxy.minY(), proxy.maxX(), proxy.maxY());
+    }
+
+    private float pointDistanceTo(CollisionProxy proxy) {
+        if (filter != null && !filter.test(proxy.gameObject())) {
+            return Float.POSITIVE_INFINITY;
+        }
+        return DynamicAabbTree.pointDistance(minX, minY,
+                proxy.minX(), proxy.minY(), proxy.maxX(), proxy.maxY());
+    }
+}
@@ -0,0 +1,219 @@
+package bricker.collisions;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * package-private. A spatial index of objects that never move.
+ * The index is a dense grid over the bounding box of all the static proxies, stored
+ * compactly: the proxies of each cell are consecutive in one array, and each cell only
+ * remembers where its run starts. It is built once and rebuilt only when static objects are
+ * added, so querying it costs nothing per static object. Removing a proxy only clears its
+ * entries in the cells it covers; the holes are compacted away by a later rebuild, once they
+ * make up half of the index. Rebuilds reuse the index's arrays when they are large enough.
+ */
+class StaticIndex {
+    private static final int MAX_CELLS = 1 << 20;
+
+    private final float preferredCellSize;
+    private float originX, originY, inverseCellSize;
+    private int columns, rows;
+    private int[] cellStart = new int[1];
+    private int[] cellFill = new int[0];
+    // a removed proxy leaves a null in each of its cells
+    private CollisionProxy[] cellProxies = new CollisionProxy[0];
+    private int cellProxyCount;
+    // for each proxy (by its position in the built list): the last query that reported it
+    private CollisionProxy[] proxies = new CollisionProxy[0];
+    private int[] reportedInQuery = new int[0];
+    private int count;
+    private int removedCount;
+    private int query;
+
+    /**
+     * Constructor for the index.
+     * @param cellSize Preferred width and height of a grid cell, in pixels. Grown if the
+     *                 static objects are spread over too large an area.
+     */
+    StaticIndex(float cellSize) {
+        this.preferredCellSize = cellSize;
+    }
+
+    /**
+     * Rebuilds the index from scratch. The bounding boxes of the proxies must be up to date.
+     */
+    void build(List<CollisionProxy> staticProxies) {
+        int oldCount = count;
+        count = staticProxies.size();
+        removedCount = 0;
+        if (proxies.length < count) {
+            proxies = new CollisionProxy[Math.max(count, proxies.length * 2)];
+            reportedInQuery = new int[proxies.length];
+        } else {
+            clearTail(proxies, count, oldCount);
+            Arrays.fill(reportedInQuery, 0, count, 0);
+        }
+        for (int index = 0; index < count; index++) {
+            proxies[index] = staticProxies.get(index);
+            proxies[index].setStaticIndex(index);
+        }
+        query = 0;
+        int oldCellProxyCount = cellProxyCount;
+        if (count == 0) {
+            columns = rows = 0;
+            cellProxyCount = 0;
+            clearTail(cellProxies, 0, oldCellProxyCount);
+            return;
+        }
+        computeGrid();
+        int cells = columns * rows;
+        if (cellStart.length < cells + 1) {
+            cellStart = new int[Math.max(cells + 1, cellStart.length * 2)];
+            cellFill = new int[cellStart.length];
+        } else {
+            Arrays.fill(cellStart, 0, cells + 1, 0);
+        }
+        for (int index = 0; index < count; index++) {
+            CollisionProxy proxy = proxies[index];
+            int x0 = column(proxy.minX()), x1 = lastColumn(proxy.maxX());
+            int y0 = row(proxy.minY()), y1 = lastRow(proxy.maxY());
+            for (int cellY = y0; cellY <= y1; cellY++) {
+                for (int cellX = x0; cellX <= x1; cellX++) {
+                    cellStart[cellY * columns + cellX + 1]++;
+                }
+            }
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        cellProxyCount = cellStart[cells];
+        if (cellProxies.length < cellProxyCount) {
+            cellProxies = new CollisionProxy[Math.max(cellProxyCount, cellProxies.length * 2)];
+        } else {
+            clearTail(cellProxies, cellProxyCount, oldCellProxyCount);
+        }
+        System.arraycopy(cellStart, 0, cellFill, 0, cells);
+        for (int index = 0; index < count; index++) {
+            CollisionProxy proxy = proxies[index];
+            int x0 = column(proxy.minX()), x1 = lastColumn(proxy.maxX());
+            int y0 = row(proxy.minY()), y1 = lastRow(proxy.maxY());
+            for (int cellY = y0; cellY <= y1; cellY++) {
+                for (int cellX = x0; cellX <= x1; cellX++) {
+                    cellProxies[cellFill[cellY * columns + cellX]++] = proxy;
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes a proxy out of the index, if it was built into it. The proxy's bounding box must
+     * not have changed since the index was built.
+     * @return true if enough proxies were removed since the index was built that it is worth
+     * rebuilding.
+     */
+    boolean remove(CollisionProxy proxy) {
+        int index = proxy.staticIndex();
+        if (index < 0 || index >= count || proxies[index] != proxy) {
+            return false;
+        }
+        int x0 = column(proxy.minX()), x1 = lastColumn(proxy.maxX());
+        int y0 = row(proxy.minY()), y1 = lastRow(proxy.maxY());
+        for (int cellY = y0; cellY <= y1; cellY++) {
+            for (int cellX = x0; cellX <= x1; cellX++) {
+                int cell = cellY * columns + cellX;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    if (cellProxies[i] == proxy) {
+                        cellProxies[i] = null;
+                        break;
+                    }
+                }
+            }
+        }
+        proxies[index] = null;
+        proxy.setStaticIndex(-1);
+        removedCount++;
+        return removedCount * 2 > count;
+    }
+
+    /**
+     * Reports every static proxy whose cells overlap the given box, once.
+     */
+    void query(float minX, float minY, float maxX, float maxY,
+               Consumer<CollisionProxy> consumer) {
+        if (columns == 0) {
+            return;
+        }
+        int x0 = Math.max(column(minX), 0);
+        int y0 = Math.max(row(minY), 0);
+        int x1 = Math.min(column(maxX), columns - 1);
+        int y1 = Math.min(row(maxY), rows - 1);
+        if (x0 > x1 || y0 > y1) {
+            return;
+        }
+        query++;
+        for (int cellY = y0; cellY <= y1; cellY++) {
+            for (int cellX = x0; cellX <= x1; cellX++) {
+                int cell = cellY * columns + cellX;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    CollisionProxy proxy = cellProxies[i];
+                    if (proxy != null && reportedInQuery[proxy.staticIndex()] != query) {
+                        reportedInQuery[proxy.staticIndex()] = query;
+                        consumer.accept(proxy);
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Fits a grid to the bounding box of all the proxies.
+     */
+    private void computeGrid() {
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+        for (int index = 0; index < count; index++) {
+            CollisionProxy proxy = proxies[index];
+            minX = Math.min(minX, proxy.minX());
+            minY = Math.min(minY, proxy.minY());
+            maxX = Math.max(maxX, proxy.maxX());
+            maxY = Math.max(maxY, proxy.maxY());
+        }
+        float cellSize = preferredCellSize;
+        while (cellCount(maxX - minX, cellSize) * cellCount(maxY - minY, cellSize) > MAX_CELLS) {
+            cellSize *= 2;
+        }
+        originX = minX;
+        originY = minY;
+        inverseCellSize = 1f / cellSize;
+        columns = (int) cellCount(maxX - minX, cellSize);
+        rows = (int) cellCount(maxY - minY, cellSize);
+    }
+
+    private int column(float x) {
+        return (int) Math.floor((x - originX) * inverseCellSize);
+    }
+
+    private int row(float y) {
+        return (int) Math.floor((y - originY) * inverseCellSize);
+    }
+
+    private int lastColumn(float x) {
+        return Math.min(column(x), columns - 1);
+    }
+
+    private int lastRow(float y) {
+        return Math.min(row(y), rows - 1);
+    }
+
+    // drops the references a smaller rebuild no longer uses
+    private static void clearTail(CollisionProxy[] array, int from, int oldEnd) {
+        if (oldEnd > from) {
+            Arrays.fill(array, from, oldEnd, null);
+        }
+    }
+
+    private static long cellCount(float extent, float cellSize) {
+        return (long) Math.floor(extent / cellSize) + 1;
+    }
+}
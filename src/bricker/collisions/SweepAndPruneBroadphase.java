@@ -0,0 +1,114 @@
+package bricker.collisions;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * A sort-and-sweep (sweep-and-prune) broadphase on the X axis.
+ * The proxies are kept sorted by the left side of their bounding boxes. Sweeping the sorted
+ * array, each proxy only needs to be compared with the proxies that start before it ends.
+ * <p>
+ * The order is kept between frames and fixed with an insertion sort. Since objects move very
+ * little between frames the array is almost sorted, and the sort is close to linear.
+ * This works best for scenes that are spread horizontally, like rows of bricks.
+ * All layers share one array; pairs of layers that don't collide are filtered by the collection.
+ */
+public class SweepAndPruneBroadphase implements Broadphase {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private CollisionProxy[] sorted = new CollisionProxy[INITIAL_CAPACITY];
+    private float[] sortedMinX = new float[INITIAL_CAPACITY];
+    private int size;
+
+    // indexed by proxy id: the proxy of this frame, and the proxy that is in the sorted array
+    private CollisionProxy[] currentById = new CollisionProxy[INITIAL_CAPACITY];
+    private CollisionProxy[] sortedById = new CollisionProxy[INITIAL_CAPACITY];
+
+    @Override
+    public void findPairs(List<CollisionProxy> proxies,
+                          BiConsumer<CollisionProxy, CollisionProxy> pairHandler) {
+        for (CollisionProxy proxy : proxies) {
+            ensureIdCapacity(proxy.id());
+            currentById[proxy.id()] = proxy;
+        }
+        dropMissingProxies();
+        for (CollisionProxy proxy : proxies) {
+            if (sortedById[proxy.id()] != proxy) {
+                append(proxy);
+            }
+            currentById[proxy.id()] = null;
+        }
+        insertionSort();
+        sweep(pairHandler);
+    }
+
+    /*
+     * Removes from the sorted array the proxies that were not passed this frame,
+     * keeping the order of the rest.
+     */
+    private void dropMissingProxies() {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            CollisionProxy proxy = sorted[i];
+            if (currentById[proxy.id()] == proxy) {
+                sorted[kept++] = proxy;
+            } else if (sortedById[proxy.id()] == proxy) {
+                sortedById[proxy.id()] = null;
+            }
+        }
+        Arrays.fill(sorted, kept, size, null);
+        size = kept;
+    }
+
+    private void append(CollisionProxy proxy) {
+        if (size == sorted.length) {
+            sorted = Arrays.copyOf(sorted, size * 2);
+            sortedMinX = Arrays.copyOf(sortedMinX, size * 2);
+        }
+        sorted[size++] = proxy;
+        sortedById[proxy.id()] = proxy;
+    }
+
+    /*
+     * Refreshes the keys and sorts by them. Nearly linear when the array is nearly sorted.
+     */
+    private void insertionSort() {
+        for (int i = 0; i < size; i++) {
+            sortedMinX[i] = sorted[i].minX();
+        }
+        for (int i = 1; i < size; i++) {
+            CollisionProxy proxy = sorted[i];
+            float key = sortedMinX[i];
+            int j = i - 1;
+            while (j >= 0 && sortedMinX[j] > key) {
+                sorted[j + 1] = sorted[j];
+                sortedMinX[j + 1] = sortedMinX[j];
+                j--;
+            }
+            sorted[j + 1] = proxy;
+            sortedMinX[j + 1] = key;
+        }
+    }
+
+    private void sweep(BiConsumer<CollisionProxy, CollisionProxy> pairHandler) {
+        for (int i = 0; i < size; i++) {
+            CollisionProxy proxy = sorted[i];
+            float maxX = proxy.maxX();
+            for (int j = i + 1; j < size && sortedMinX[j] <= maxX; j++) {
+                CollisionProxy other = sorted[j];
+                if (other.minY() <= proxy.maxY() && proxy.minY() <= other.maxY()) {
+                    pairHandler.accept(proxy, other);
+                }
+            }
+        }
+    }
+
+    private void ensureIdCapacity(int id) {
+        if (id >= currentById.length) {
+            int newLength = Math.max(id + 1, currentById.length * 2);
+            currentById = Arrays.copyOf(currentById, newLength);
+            sortedById = Arrays.copyOf(sortedById, newLength);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package bricker.collisions;
+
+/**
+ * Time-of-impact computation for moving axis-aligned boxes.
+ * A box that moves further in one frame than its own size can pass through a thin object
+ * without ever overlapping it at the end of a frame. Sweeping the box along its motion finds
+ * the moment in the frame at which it first touches the other box, so the collision can be
+ * handled there instead of being missed.
+ */
+public class SweptAabb {
+    /**
+     * Returned by {@link #timeOfImpact} when the boxes don't meet during the motion.
+     */
+    public static final float NO_IMPACT = Float.POSITIVE_INFINITY;
+
+    private SweptAabb() { }
+
+    /**
+     * Computes when a moving box first touches a box that stands still. To sweep two moving
+     * boxes against each other, pass the motion of the first relative to the second.
+     * @param minX1  The left side of the moving box, at the start of the motion.
+     * @param minY1  The top side of the moving box, at the start of the motion.
+     * @param maxX1  The right side of the moving box, at the start of the motion.
+     * @param maxY1  The bottom side of the moving box, at the start of the motion.
+     * @param deltaX How far the moving box moves along the x axis.
+     * @param deltaY How far the moving box moves along the y axis.
+     * @param minX2  The left side of the other box.
+     * @param minY2  The top side of the other box.
+     * @param maxX2  The right side of the other box.
+     * @param maxY2  The bottom side of the other box.
+     * @return the fraction of the motion (between 0 and 1) at which the boxes first touch,
+     * 0 if they already overlap at the start, or {@link #NO_IMPACT} if they don't meet.
+     */
+    public static float timeOfImpact(float minX1, float minY1, float maxX1, float maxY1,
+                                     float deltaX, float deltaY,
+                                     float minX2, float minY2, float maxX2, float maxY2) {
+        float entry = 0;
+        float exit = 1;
+        if (deltaX == 0) {
+            if (maxX1 < minX2 || maxX2 < minX1) {
+                return NO_IMPACT;
+            }
+        } else {
+            float near = (deltaX > 0 ? minX2 - maxX1 : maxX2 - minX1) / deltaX;
+            float far = (deltaX > 0 ? maxX2 - minX1 : minX2 - maxX1) / deltaX;
+            entry = Math.max(entry, near);
+            exit = Math.min(exit, far);
+        }
+        if (deltaY == 0) {
+            if (maxY1 < minY2 || maxY2 < minY1) {
+                return NO_IMPACT;
+            }
+        } else {
+            float near = (deltaY > 0 ? minY2 - maxY1 : maxY2 - minY1) / deltaY;
+            float far = (deltaY > 0 ? maxY2 - minY1 : minY2 - maxY1) / deltaY;
+            entry = Math.max(entry, near);
+            exit = Math.min(exit, far);
+        }
+        return entry <= exit ? entry : NO_IMPACT;
+    }
+}
@@ -0,0 +1,117 @@
+package bricker.collisions;
+
+import danogl.collisions.Collider;
+import danogl.util.Vector2;
+
+/**
+ * The collider of a grid of tiles that covers its whole object. Tiles are ints kept in a
+ * single row-major array; {@link #EMPTY} tiles are holes, and every other tile is solid.
+ * <p>
+ * An object with an AABB collider that touches the grid is tested only against the tiles
+ * under its box, found by dividing its coordinates by the size of a tile, so a grid costs
+ * one pair per moving object no matter how many tiles it has. The solid tiles under the box
+ * are treated as a single box (the smallest one around them): an object sliding along a row
+ * of tiles touches one flat surface, and doesn't get caught on the seams between tiles.
+ * Collisions with a grid are supported by {@link BrickerGameObjectCollection} out of the box.
+ */
+public class TileMapCollider implements Collider {
+    /**
+     * The type of this collider.
+     */
+    public static final String TILE_MAP_COLLIDER_TYPE = "TileMap";
+    /**
+     * A tile with nothing in it.
+     */
+    public static final int EMPTY = 0;
+
+    private final int columns;
+    private final int rows;
+    private final int[] tiles;
+
+    /**
+     * Constructor for the collider. All the tiles start empty.
+     * @param columns Number of columns in the grid.
+     * @param rows    Number of rows in the grid.
+     */
+    public TileMapCollider(int columns, int rows) {
+        if (columns <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("a tile map must have at least one tile");
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.tiles = new int[columns * rows];
+    }
+
+    @Override
+    public String colliderType() {
+        return TILE_MAP_COLLIDER_TYPE;
+    }
+
+    /**
+     * Checks whether a point is in a solid tile.
+     * @param point A point in object coordinates, where the grid spans 0 to 1 on both axes.
+     */
+    @Override
+    public boolean containsPoint(Vector2 point) {
+        int column = (int) Math.floor(point.x() * columns);
+        int row = (int) Math.floor(point.y() * rows);
+        return isInside(column, row) && isSolid(column, row);
+    }
+
+    /**
+     * @return the number of columns in the grid.
+     */
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * @return the number of rows in the grid.
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return true if the grid has a tile in the given column and row.
+     */
+    public boolean isInside(int column, int row) {
+        return column >= 0 && column < columns && row >= 0 && row < rows;
+    }
+
+    /**
+     * @return the tile in the given column and row.
+     */
+    public int tileAt(int column, int row) {
+        checkInside(column, row);
+        return tiles[row * columns + column];
+    }
+
+    /**
+     * @return true if the tile in the given column and row isn't empty.
+     */
+    public boolean isSolid(int column, int row) {
+        return tileAt(column, row) != EMPTY;
+    }
+
+    /**
+     * Replaces the tile in the given column and row.
+     * @return true if the tile changed.
+     */
+    public boolean setTile(int column, int row, int tile) {
+        checkInside(column, row);
+        int index = row * columns + column;
+        if (tiles[index] == tile) {
+            return false;
+        }
+        tiles[index] = tile;
+        return true;
+    }
+
+    private void checkInside(int column, int row) {
+        if (!isInside(column, row)) {
+            throw new IndexOutOfBoundsException(
+                    "no tile at column " + column + ", row " + row);
+        }
+    }
+}
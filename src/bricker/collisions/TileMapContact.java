@@ -0,0 +1,54 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+/**
+ * package-private. The collision data of an object with an AABB collider (the first object)
+ * and an object with a {@link TileMapCollider} (the second). The second object's box is the
+ * smallest box around the solid tiles the first object's box overlaps; if it overlaps none,
+ * the objects don't collide. Made to be reused by {@link TileMapPairCollisionHandler}.
+ */
+class TileMapContact extends AabbContact {
+
+    TileMapContact(ImpactOffset impactOffset) {
+        super(impactOffset);
+    }
+
+    @Override
+    void readSecondBox() {
+        GameObject map = getGameObject(1);
+        TileMapCollider collider = (TileMapCollider) map.physics().collider();
+        Vector2 corner = map.getTopLeftCorner();
+        Vector2 dimensions = map.getDimensions();
+        float tileWidth = dimensions.x() / collider.columns();
+        float tileHeight = dimensions.y() / collider.rows();
+        // only tiles the box overlaps with a positive area
+        int firstColumn = Math.max(
+                (int) Math.floor((firstMinX() - corner.x()) / tileWidth), 0);
+        int lastColumn = Math.min(
+                (int) Math.ceil((firstMaxX() - corner.x()) / tileWidth) - 1,
+                collider.columns() - 1);
+        int firstRow = Math.max((int) Math.floor((firstMinY() - corner.y()) / tileHeight), 0);
+        int lastRow = Math.min((int) Math.ceil((firstMaxY() - corner.y()) / tileHeight) - 1,
+                collider.rows() - 1);
+        int minColumn = Integer.MAX_VALUE, maxColumn = -1;
+        int minRow = Integer.MAX_VALUE, maxRow = -1;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                if (collider.isSolid(column, row)) {
+                    minColumn = Math.min(minColumn, column);
+                    maxColumn = Math.max(maxColumn, column);
+                    minRow = Math.min(minRow, row);
+                    maxRow = Math.max(maxRow, row);
+                }
+            }
+        }
+        if (maxColumn < 0) {
+            setSecondBox(0, 0, 0, 0);
+            return;
+        }
+        setSecondBox(corner.x() + minColumn * tileWidth, corner.y() + minRow * tileHeight,
+                (maxColumn - minColumn + 1) * tileWidth, (maxRow - minRow + 1) * tileHeight);
+    }
+}
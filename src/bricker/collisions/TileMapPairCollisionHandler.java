@@ -0,0 +1,60 @@
+package bricker.collisions;
+
+import danogl.GameObject;
+import danogl.collisions.AABB.AABBCollider;
+import danogl.collisions.PairCollisionData;
+import danogl.collisions.PairCollisionHandler;
+
+/**
+ * package-private. Creates the collision data of an object with an AABB collider and an
+ * object with a {@link TileMapCollider}, in that order. Like {@link PooledAabbHandler}, it
+ * takes the data from a {@link ContactPool}, and the contacts it handed out must be retired
+ * and recycled the same way.
+ */
+class TileMapPairCollisionHandler implements PairCollisionHandler {
+    private final ContactPool<TileMapContact> pool;
+
+    /**
+     * Constructor for the handler.
+     * @param impactOffset The offset of the swept object whose impact is being handled.
+     */
+    TileMapPairCollisionHandler(ImpactOffset impactOffset) {
+        this.pool = new ContactPool<>(TileMapContact.class,
+                () -> new TileMapContact(impactOffset));
+    }
+
+    @Override
+    public PairCollisionData computeCollisionData(GameObject go1, GameObject go2) {
+        if (!supportsPair(go1, go2)) {
+            return null;
+        }
+        TileMapContact contact = pool.take(go1, go2);
+        if (!contact.areColliding()) {
+            pool.giveBack(contact);
+            return null;
+        }
+        return contact;
+    }
+
+    @Override
+    public boolean supportsPair(GameObject go1, GameObject go2) {
+        return go1.physics().collider().colliderType().equals(AABBCollider.AABB_COLLIDER_TYPE)
+                && go2.physics().collider().colliderType()
+                .equals(TileMapCollider.TILE_MAP_COLLIDER_TYPE);
+    }
+
+    /**
+     * Marks the collision data of a pair that stopped colliding as no longer needed. Data that
+     * didn't come from this handler is ignored.
+     */
+    void retire(PairCollisionData data) {
+        pool.retire(data);
+    }
+
+    /**
+     * Returns the retired contacts to the pool.
+     */
+    void recycleRetired() {
+        pool.recycleRetired();
+    }
+}
@@ -0,0 +1,39 @@
+package bricker.components;
+
+/**
+ * package-private. Integrates the entries of a store one slot at a time. This is what stores
+ * use unless the vectorized integration is turned on (see {@link TransformStore}).
+ */
+class ScalarIntegrator implements TransformIntegrator {
+    @Override
+    public void integrate(TransformStore store, int start, int end, float deltaTime) {
+        float[] x = store.x, y = store.y;
+        float[] velocityX = store.velocityX, velocityY = store.velocityY;
+        float[] velocityToApplyX = store.velocityToApplyX;
+        float[] velocityToApplyY = store.velocityToApplyY;
+        float[] accelerationX = store.accelerationX, accelerationY = store.accelerationY;
+        boolean[] isAccelerationEnabled = store.isAccelerationEnabled;
+        for (int slot = start; slot < end; slot++) {
+            float newVelocityX = velocityX[slot];
+            float newVelocityY = velocityY[slot];
+            float applyX = velocityToApplyX[slot];
+            float applyY = velocityToApplyY[slot];
+            if ((accelerationX[slot] != 0 || accelerationY[slot] != 0)
+                    && isAccelerationEnabled[slot]) {
+                newVelocityX += accelerationX[slot] * deltaTime;
+                newVelocityY += accelerationY[slot] * deltaTime;
+                velocityX[slot] = newVelocityX;
+                velocityY[slot] = newVelocityY;
+                applyX = (applyX + newVelocityX) * 0.5f;
+                applyY = (applyY + newVelocityY) * 0.5f;
+            }
+            if (applyX != 0 || applyY != 0) {
+                x[slot] += applyX * deltaTime;
+                y[slot] += applyY * deltaTime;
+            }
+            velocityToApplyX[slot] = newVelocityX;
+            velocityToApplyY[slot] = newVelocityY;
+            isAccelerationEnabled[slot] = true;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package bricker.components;
+
+import danogl.GameObject;
+import danogl.components.Transform;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+/**
+ * A GameObject moved by a {@link TransformStore} rather than by its own transform.
+ * Its transform is still the object's state: whatever changes it between frames (collision
+ * callbacks, the collision resolver, the object's setters) is copied into the object's entry
+ * in the store when the object is updated, and the store moves the object once it integrates
+ * its entries. The object only moves if the store is updated every frame after the objects,
+ * which a {@link bricker.collisions.BrickerGameObjectCollection} the store is added to does.
+ * <p>
+ * The object takes an entry on its first update, and gives it up if it misses an update (it
+ * was removed from its collection); it takes a new one if it is updated again.
+ */
+public class StoredGameObject extends GameObject {
+    private static final int NO_SLOT = -1;
+
+    private final TransformStore store;
+    private int slot = NO_SLOT;
+    // what the object moves with on its next update, kept while it has no entry
+    private float velocityToApplyX, velocityToApplyY;
+
+    /**
+     * Constructor for the object.
+     * @param store         The store that moves the object.
+     * @param topLeftCorner Position of the object, in window coordinates (pixels).
+     * @param dimensions    Width and height in window coordinates.
+     * @param renderable    The renderable representing the object. Can be null.
+     */
+    public StoredGameObject(TransformStore store, Vector2 topLeftCorner, Vector2 dimensions,
+                            Renderable renderable) {
+        super(topLeftCorner, dimensions, renderable);
+        this.store = store;
+    }
+
+    /**
+     * @return the store that moves the object.
+     */
+    public TransformStore store() {
+        return store;
+    }
+
+    /**
+     * @return the slot of the object's entry in the store, or -1 if it has none.
+     */
+    public int slot() {
+        return slot;
+    }
+
+    /**
+     * Copies the object's transform into its entry, and updates the rest of the object. The
+     * transform itself isn't integrated: the store moves the object.
+     * @param deltaTime Time since last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        Transform transform = transform();
+        Vector2 corner = transform.getTopLeftCorner();
+        Vector2 velocity = transform.getVelocity();
+        Vector2 acceleration = transform.getAcceleration();
+        float velocityX = velocity.x(), velocityY = velocity.y();
+        float accelerationX = acceleration.x(), accelerationY = acceleration.y();
+        if (slot == NO_SLOT) {
+            slot = store.add(this, corner.x(), corner.y(), velocityToApplyX, velocityToApplyY);
+        }
+        store.write(slot, corner.x(), corner.y(), velocityX, velocityY,
+                accelerationX, accelerationY, transform.isAccelerationEnabled());
+        // a transform updated at rest doesn't move, and has nothing to move with next time
+        transform.setVelocity(0, 0);
+        transform.setAcceleration(0, 0);
+        super.update(deltaTime);
+        transform.setVelocity(velocityX, velocityY);
+        transform.setAcceleration(accelerationX, accelerationY);
+    }
+
+    /**
+     * Moves the object to where the store integrated its entry.
+     */
+    void onIntegrated(float x, float y, float velocityX, float velocityY) {
+        transform().setTopLeftCorner(x, y);
+        transform().setVelocity(velocityX, velocityY);
+    }
+
+    /**
+     * Forgets the object's entry, once the store removed it, keeping the velocity the entry
+     * would have moved with next.
+     */
+    void onSlotRemoved(float velocityToApplyX, float velocityToApplyY) {
+        slot = NO_SLOT;
+        this.velocityToApplyX = velocityToApplyX;
+        this.velocityToApplyY = velocityToApplyY;
+    }
+}
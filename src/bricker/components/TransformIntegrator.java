@@ -0,0 +1,17 @@
+package bricker.components;
+
+/**
+ * package-private. Integrates the entries of a {@link TransformStore}, with the arithmetic of
+ * Transform.update. Every implementation gives the same results, to the bit, so which one a
+ * store uses only changes how fast it is.
+ */
+interface TransformIntegrator {
+    /**
+     * Integrates the slots of a store from start (inclusive) to end (exclusive).
+     * @param store     The store.
+     * @param start     The first slot.
+     * @param end       One past the last slot.
+     * @param deltaTime Time since last frame.
+     */
+    void integrate(TransformStore store, int start, int end, float deltaTime);
+}
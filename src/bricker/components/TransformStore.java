@@ -0,0 +1,331 @@
+package bricker.components;
+
+import java.util.Arrays;
+
+/**
+ * The positions, velocities and accelerations of many moving things, kept in one float array
+ * per coordinate and integrated together by {@link #update(float)}, in one loop over the
+ * arrays, instead of one Transform at a time.
+ * <p>
+ * Every entry has a slot. Slots of removed entries are reused, and until then they hold
+ * zeros, which the integration leaves as they are. An entry either stands alone (see
+ * {@link #add}), for things that are drawn or checked in bulk, or belongs to a
+ * {@link StoredGameObject}, whose transform follows its entry. The entry of a game object is
+ * overwritten by the object's transform every time the object is updated, so it is changed
+ * through the object rather than through the store.
+ * <p>
+ * The integration is the library's (Transform.update): the velocity an entry moves with in a
+ * frame is its velocity at the end of the previous frame, or, while it accelerates, the
+ * average of that velocity and the new one. Like a GameObject, an entry whose acceleration
+ * was disabled ignores it for a single update.
+ * <p>
+ * The integration can be vectorized, integrating 8 or 16 entries at a time where the CPU
+ * allows it. This needs the incubating Vector API, so the vectorized integrator is kept in
+ * its own source root, src-vector, which is compiled with
+ * {@code javac --add-modules jdk.incubator.vector}; src compiles without it. The program
+ * must then be run with {@code --add-modules jdk.incubator.vector} and
+ * {@code -Dbricker.vectorizedTransforms=true} (see {@link #VECTORIZED_PROPERTY}). The choice
+ * is made once, when the first store is created; if the property isn't set, or the
+ * integrator or the module isn't there, the entries are integrated one at a time. Both give
+ * the same results.
+ */
+public class TransformStore {
+    /**
+     * The system property that turns on the vectorized integration, when set to true.
+     */
+    public static final String VECTORIZED_PROPERTY = "bricker.vectorizedTransforms";
+    private static final String VECTOR_INTEGRATOR = "bricker.components.VectorIntegrator";
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final TransformIntegrator STARTUP_INTEGRATOR = selectIntegrator();
+
+    private final TransformIntegrator integrator;
+    // for each slot; the integrators read and write the arrays of the store directly
+    float[] x = new float[INITIAL_CAPACITY];
+    float[] y = new float[INITIAL_CAPACITY];
+    float[] velocityX = new float[INITIAL_CAPACITY];
+    float[] velocityY = new float[INITIAL_CAPACITY];
+    float[] velocityToApplyX = new float[INITIAL_CAPACITY];
+    float[] velocityToApplyY = new float[INITIAL_CAPACITY];
+    float[] accelerationX = new float[INITIAL_CAPACITY];
+    float[] accelerationY = new float[INITIAL_CAPACITY];
+    boolean[] isAccelerationEnabled = new boolean[INITIAL_CAPACITY];
+    private boolean[] isInUse = new boolean[INITIAL_CAPACITY];
+    private StoredGameObject[] owners = new StoredGameObject[INITIAL_CAPACITY];
+    // whether the owner of the slot was updated since the last integration
+    private boolean[] isOwnerUpdated = new boolean[INITIAL_CAPACITY];
+    private int slotCount;
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeSlotCount;
+
+    /**
+     * Constructor for the store. Entries are integrated vectorized if that was turned on
+     * (see {@link #isVectorized()}).
+     */
+    public TransformStore() {
+        this(STARTUP_INTEGRATOR);
+    }
+
+    /**
+     * Constructor for a store that integrates its entries with the given integrator.
+     */
+    TransformStore(TransformIntegrator integrator) {
+        this.integrator = integrator;
+    }
+
+    /**
+     * @return true if stores integrate their entries with the Vector API.
+     */
+    public static boolean isVectorized() {
+        return !(STARTUP_INTEGRATOR instanceof ScalarIntegrator);
+    }
+
+    /**
+     * Adds a standalone entry, at rest.
+     * @param x The x coordinate of its top left corner.
+     * @param y The y coordinate of its top left corner.
+     * @return the slot of the entry.
+     */
+    public int add(float x, float y) {
+        return addEntry(null, x, y);
+    }
+
+    /**
+     * Removes an entry. Its slot may be handed to the next entry added.
+     * @param slot The slot of the entry.
+     */
+    public void remove(int slot) {
+        checkSlot(slot);
+        if (owners[slot] != null) {
+            owners[slot].onSlotRemoved(velocityToApplyX[slot], velocityToApplyY[slot]);
+        }
+        clearSlot(slot);
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+        }
+        freeSlots[freeSlotCount++] = slot;
+    }
+
+    /**
+     * @return the number of entries.
+     */
+    public int size() {
+        return slotCount - freeSlotCount;
+    }
+
+    /**
+     * @return true if the slot holds an entry.
+     */
+    public boolean contains(int slot) {
+        return slot >= 0 && slot < slotCount && isInUse[slot];
+    }
+
+    /**
+     * @return the x coordinate of the top left corner of an entry.
+     */
+    public float x(int slot) {
+        checkSlot(slot);
+        return x[slot];
+    }
+
+    /**
+     * @return the y coordinate of the top left corner of an entry.
+     */
+    public float y(int slot) {
+        checkSlot(slot);
+        return y[slot];
+    }
+
+    /**
+     * @return the horizontal velocity of an entry.
+     */
+    public float velocityX(int slot) {
+        checkSlot(slot);
+        return velocityX[slot];
+    }
+
+    /**
+     * @return the vertical velocity of an entry.
+     */
+    public float velocityY(int slot) {
+        checkSlot(slot);
+        return velocityY[slot];
+    }
+
+    /**
+     * @return the horizontal acceleration of an entry.
+     */
+    public float accelerationX(int slot) {
+        checkSlot(slot);
+        return accelerationX[slot];
+    }
+
+    /**
+     * @return the vertical acceleration of an entry.
+     */
+    public float accelerationY(int slot) {
+        checkSlot(slot);
+        return accelerationY[slot];
+    }
+
+    /**
+     * Moves an entry.
+     */
+    public void setTopLeftCorner(int slot, float x, float y) {
+        checkSlot(slot);
+        this.x[slot] = x;
+        this.y[slot] = y;
+    }
+
+    /**
+     * Sets the velocity of an entry. As with a Transform, the entry moves with its previous
+     * velocity on the next update, and with this one from the update after it.
+     */
+    public void setVelocity(int slot, float x, float y) {
+        checkSlot(slot);
+        velocityX[slot] = x;
+        velocityY[slot] = y;
+    }
+
+    /**
+     * Sets the acceleration of an entry.
+     */
+    public void setAcceleration(int slot, float x, float y) {
+        checkSlot(slot);
+        accelerationX[slot] = x;
+        accelerationY[slot] = y;
+    }
+
+    /**
+     * Sets whether an entry accelerates on the next update. It is enabled again after it.
+     */
+    public void setAccelerationEnabled(int slot, boolean isEnabled) {
+        checkSlot(slot);
+        isAccelerationEnabled[slot] = isEnabled;
+    }
+
+    /**
+     * Integrates every entry, then moves the game objects of the entries to their new
+     * positions. Entries of game objects that weren't updated since the previous call (they
+     * are no longer in a collection) are removed first. When the store is added to a
+     * collection (see {@link bricker.collisions.BrickerGameObjectCollection#addTransformStore}),
+     * the collection calls this once a frame, after its objects are updated and before it
+     * looks for collisions.
+     * @param deltaTime Time since last frame.
+     */
+    public void update(float deltaTime) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (owners[slot] != null && !isOwnerUpdated[slot]) {
+                remove(slot);
+            }
+        }
+        integrator.integrate(this, 0, slotCount, deltaTime);
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (owners[slot] != null) {
+                isOwnerUpdated[slot] = false;
+                owners[slot].onIntegrated(x[slot], y[slot], velocityX[slot], velocityY[slot]);
+            }
+        }
+    }
+
+    /**
+     * Adds the entry of a game object, which moves with the given velocity on the next
+     * update.
+     */
+    int add(StoredGameObject owner, float x, float y,
+            float velocityToApplyX, float velocityToApplyY) {
+        int slot = addEntry(owner, x, y);
+        this.velocityToApplyX[slot] = velocityToApplyX;
+        this.velocityToApplyY[slot] = velocityToApplyY;
+        return slot;
+    }
+
+    /**
+     * Copies the transform of a game object into its entry, before the entry is integrated.
+     */
+    void write(int slot, float x, float y, float velocityX, float velocityY,
+               float accelerationX, float accelerationY, boolean isAccelerationEnabled) {
+        this.x[slot] = x;
+        this.y[slot] = y;
+        this.velocityX[slot] = velocityX;
+        this.velocityY[slot] = velocityY;
+        this.accelerationX[slot] = accelerationX;
+        this.accelerationY[slot] = accelerationY;
+        this.isAccelerationEnabled[slot] = isAccelerationEnabled;
+        isOwnerUpdated[slot] = true;
+    }
+
+    /**
+     * Creates the integrator of the vectorized integration, or returns null if the Vector API
+     * isn't available (src-vector wasn't compiled, or the jdk.incubator.vector module
+     * wasn't added).
+     */
+    static TransformIntegrator createVectorIntegrator() {
+        try {
+            return (TransformIntegrator) Class.forName(VECTOR_INTEGRATOR)
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static TransformIntegrator selectIntegrator() {
+        TransformIntegrator vectorIntegrator =
+                Boolean.getBoolean(VECTORIZED_PROPERTY) ? createVectorIntegrator() : null;
+        return vectorIntegrator != null ? vectorIntegrator : new ScalarIntegrator();
+    }
+
+    private int addEntry(StoredGameObject owner, float x, float y) {
+        int slot;
+        if (freeSlotCount > 0) {
+            slot = freeSlots[--freeSlotCount];
+        } else {
+            if (slotCount == isInUse.length) {
+                grow(slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+        isInUse[slot] = true;
+        isAccelerationEnabled[slot] = true;
+        owners[slot] = owner;
+        this.x[slot] = x;
+        this.y[slot] = y;
+        return slot;
+    }
+
+    // leaves a slot at rest, so that integrating it changes nothing
+    private void clearSlot(int slot) {
+        x[slot] = 0;
+        y[slot] = 0;
+        velocityX[slot] = 0;
+        velocityY[slot] = 0;
+        velocityToApplyX[slot] = 0;
+        velocityToApplyY[slot] = 0;
+        accelerationX[slot] = 0;
+        accelerationY[slot] = 0;
+        isInUse[slot] = false;
+        owners[slot] = null;
+        isOwnerUpdated[slot] = false;
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        velocityToApplyX = Arrays.copyOf(velocityToApplyX, capacity);
+        velocityToApplyY = Arrays.copyOf(velocityToApplyY, capacity);
+        accelerationX = Arrays.copyOf(accelerationX, capacity);
+        accelerationY = Arrays.copyOf(accelerationY, capacity);
+        isAccelerationEnabled = Arrays.copyOf(isAccelerationEnabled, capacity);
+        isInUse = Arrays.copyOf(isInUse, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+        isOwnerUpdated = Arrays.copyOf(isOwnerUpdated, capacity);
+    }
+
+    private void checkSlot(int slot) {
+        if (!contains(slot)) {
+            throw new IllegalArgumentException("slot " + slot + " holds no entry");
+        }
+    }
+}
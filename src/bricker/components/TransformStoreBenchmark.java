@@ -0,0 +1,74 @@
+package bricker.components;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Times the integration of a {@link TransformStore}, one entry at a time and vectorized, on
+ * the same entries, and checks that both end with the same positions and velocities.
+ * The vectorized integration is only timed when the program is run with
+ * {@code --add-modules jdk.incubator.vector}, and src-vector was compiled.
+ * <p>
+ * Arguments (optional): the number of entries (10000 by default) and the number of frames
+ * to time (5000 by default).
+ */
+public class TransformStoreBenchmark {
+    private static final float DELTA_TIME = 1 / 60f;
+    private static final int WARMUP_FRAMES = 20000;
+    private static final long SEED = 1;
+
+    /**
+     * Runs the benchmark.
+     * @param args The number of entries and the number of frames, both optional.
+     */
+    public static void main(String[] args) {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        TransformStore scalarStore = createStore(new ScalarIntegrator(), entries);
+        double scalarNanos = nanosPerFrame(scalarStore, frames);
+        System.out.printf("scalar:     %10.1f ns/frame (%.2f ns/entry)%n",
+                scalarNanos, scalarNanos / entries);
+        TransformIntegrator vectorIntegrator = TransformStore.createVectorIntegrator();
+        if (vectorIntegrator == null) {
+            System.out.println("vectorized: unavailable (add --add-modules jdk.incubator.vector)");
+            return;
+        }
+        TransformStore vectorStore = createStore(vectorIntegrator, entries);
+        double vectorNanos = nanosPerFrame(vectorStore, frames);
+        System.out.printf("vectorized: %10.1f ns/frame (%.2f ns/entry), %.2fx%n",
+                vectorNanos, vectorNanos / entries, scalarNanos / vectorNanos);
+        System.out.println("same results: " + (Arrays.equals(scalarStore.x, vectorStore.x)
+                && Arrays.equals(scalarStore.y, vectorStore.y)
+                && Arrays.equals(scalarStore.velocityX, vectorStore.velocityX)
+                && Arrays.equals(scalarStore.velocityY, vectorStore.velocityY)));
+    }
+
+    /*
+     * Fills a store with moving entries: half of them accelerate, and some of those have
+     * their acceleration disabled for their first update.
+     */
+    private static TransformStore createStore(TransformIntegrator integrator, int entries) {
+        Random random = new Random(SEED);
+        TransformStore store = new TransformStore(integrator);
+        for (int i = 0; i < entries; i++) {
+            int slot = store.add(random.nextFloat() * 800, random.nextFloat() * 600);
+            store.setVelocity(slot, random.nextFloat() * 400 - 200, random.nextFloat() * 400 - 200);
+            if (i % 2 == 0) {
+                store.setAcceleration(slot, 0, random.nextFloat() * 500);
+                store.setAccelerationEnabled(slot, i % 3 != 0);
+            }
+        }
+        return store;
+    }
+
+    private static double nanosPerFrame(TransformStore store, int frames) {
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            store.update(DELTA_TIME);
+        }
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            store.update(DELTA_TIME);
+        }
+        return (System.nanoTime() - start) / (double) frames;
+    }
+}
@@ -0,0 +1,257 @@
+package bricker.ecs;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+
+/**
+ * All the entities of a {@link World} that have exactly the same types of components.
+ * Each type of component has its own column: an array of that type, where the component of
+ * the entity in row i is at index i. A {@link VectorComponent} type has two float columns
+ * instead, one of x and one of y, so its values sit next to each other in memory rather than
+ * in objects spread over the heap. Rows are dense: when an entity leaves the archetype, the
+ * last entity takes its row. Systems iterate the rows from 0 to {@link #size()}, reading the
+ * columns they need directly.
+ */
+public final class Archetype {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Class<?>[] types;
+    // the columns, in the order of types: arrays of their component types, or for vector
+    // components, null, with the values in xColumns and yColumns instead
+    private final Object[][] columns;
+    private final float[][] xColumns;
+    private final float[][] yColumns;
+    // for each vector component type, what copies of its components are made with
+    private final Constructor<?>[] vectorConstructors;
+    private int[] entities = new int[INITIAL_CAPACITY];
+    private int size;
+
+    Archetype(Class<?>[] types) {
+        this.types = types;
+        this.columns = new Object[types.length][];
+        this.xColumns = new float[types.length][];
+        this.yColumns = new float[types.length][];
+        this.vectorConstructors = new Constructor<?>[types.length];
+        for (int i = 0; i < types.length; i++) {
+            if (isVector(types[i])) {
+                xColumns[i] = new float[INITIAL_CAPACITY];
+                yColumns[i] = new float[INITIAL_CAPACITY];
+                vectorConstructors[i] = vectorConstructor(types[i]);
+            } else {
+                columns[i] = (Object[]) Array.newInstance(types[i], INITIAL_CAPACITY);
+            }
+        }
+    }
+
+    /**
+     * @return the number of entities (and rows) in the archetype.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the entity in the given row.
+     */
+    public int entity(int row) {
+        return entities[row];
+    }
+
+    /**
+     * @return true if the entities of this archetype have a component of the given type.
+     */
+    public boolean has(Class<?> type) {
+        return columnIndex(type) >= 0;
+    }
+
+    /**
+     * Returns the column of a type of component. The array may be longer than
+     * {@link #size()}; only the first size() elements are components. It is replaced when the
+     * archetype grows, so it must not be kept between frames.
+     * @throws IllegalArgumentException if the archetype has no such component, or it is a
+     *                                  {@link VectorComponent} (see {@link #xColumn}).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T[] column(Class<T> type) {
+        int index = checkedColumnIndex(type);
+        if (columns[index] == null) {
+            throw new IllegalArgumentException(
+                    type.getSimpleName() + " is stored in float columns");
+        }
+        return (T[]) columns[index];
+    }
+
+    /**
+     * Returns the x values of a type of {@link VectorComponent}, by row. Like a column, the
+     * array may be longer than {@link #size()}, and must not be kept between frames. Changing
+     * a value changes the component of the entity in that row.
+     * @throws IllegalArgumentException if the archetype has no such component.
+     */
+    public float[] xColumn(Class<? extends VectorComponent> type) {
+        return xColumns[checkedColumnIndex(type)];
+    }
+
+    /**
+     * Returns the y values of a type of {@link VectorComponent}, by row (see
+     * {@link #xColumn}).
+     * @throws IllegalArgumentException if the archetype has no such component.
+     */
+    public float[] yColumn(Class<? extends VectorComponent> type) {
+        return yColumns[checkedColumnIndex(type)];
+    }
+
+    /**
+     * @return the x values of the vector component in a column, by row.
+     */
+    float[] xColumn(int columnIndex) {
+        return xColumns[columnIndex];
+    }
+
+    /**
+     * @return the y values of the vector component in a column, by row.
+     */
+    float[] yColumn(int columnIndex) {
+        return yColumns[columnIndex];
+    }
+
+    Class<?>[] types() {
+        return types;
+    }
+
+    boolean hasAll(Class<?>[] requiredTypes) {
+        for (Class<?> type : requiredTypes) {
+            if (!has(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a row for an entity. Its components are given in the order of the types of the
+     * archetype.
+     * @return the row of the entity.
+     */
+    int add(int entity, Object[] components) {
+        if (size == entities.length) {
+            entities = Arrays.copyOf(entities, size * 2);
+            for (int i = 0; i < types.length; i++) {
+                if (columns[i] != null) {
+                    columns[i] = Arrays.copyOf(columns[i], size * 2);
+                } else {
+                    xColumns[i] = Arrays.copyOf(xColumns[i], size * 2);
+                    yColumns[i] = Arrays.copyOf(yColumns[i], size * 2);
+                }
+            }
+        }
+        entities[size] = entity;
+        for (int i = 0; i < types.length; i++) {
+            setComponent(size, i, components[i]);
+        }
+        return size++;
+    }
+
+    /**
+     * Removes a row, moving the last row into it.
+     * @return the entity that was moved into the row, or -1 if the row was the last one.
+     */
+    int remove(int row) {
+        int last = --size;
+        int moved = -1;
+        if (row != last) {
+            entities[row] = entities[last];
+            for (int i = 0; i < types.length; i++) {
+                if (columns[i] != null) {
+                    columns[i][row] = columns[i][last];
+                } else {
+                    xColumns[i][row] = xColumns[i][last];
+                    yColumns[i][row] = yColumns[i][last];
+                }
+            }
+            moved = entities[row];
+        }
+        for (Object[] column : columns) {
+            // so the archetype doesn't keep removed components alive
+            if (column != null) {
+                column[last] = null;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * @return the component in a row and column; for a vector component, a new copy.
+     */
+    Object component(int row, int columnIndex) {
+        if (columns[columnIndex] != null) {
+            return columns[columnIndex][row];
+        }
+        try {
+            return vectorConstructors[columnIndex].newInstance(
+                    xColumns[columnIndex][row], yColumns[columnIndex][row]);
+        } catch (InstantiationException | IllegalAccessException
+                 | InvocationTargetException e) {
+            throw new IllegalStateException(
+                    "Can't copy a " + types[columnIndex].getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Puts a component in a row and column; a vector component's values are copied.
+     */
+    void setComponent(int row, int columnIndex, Object component) {
+        if (columns[columnIndex] != null) {
+            columns[columnIndex][row] = component;
+        } else {
+            VectorComponent vector = (VectorComponent) component;
+            xColumns[columnIndex][row] = vector.x;
+            yColumns[columnIndex][row] = vector.y;
+        }
+    }
+
+    /**
+     * Checks that a type of component can be stored by archetypes.
+     * @throws IllegalArgumentException if it is a {@link VectorComponent} without a public
+     *                                  constructor that takes x and y.
+     */
+    static void checkType(Class<?> type) {
+        if (isVector(type)) {
+            vectorConstructor(type);
+        }
+    }
+
+    private int checkedColumnIndex(Class<?> type) {
+        int index = columnIndex(type);
+        if (index < 0) {
+            throw new IllegalArgumentException("The archetype has no " + type.getSimpleName());
+        }
+        return index;
+    }
+
+    private static boolean isVector(Class<?> type) {
+        return VectorComponent.class.isAssignableFrom(type);
+    }
+
+    private static Constructor<?> vectorConstructor(Class<?> type) {
+        try {
+            return type.getConstructor(float.class, float.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(
+                    type.getSimpleName() + " has no public constructor taking x and y", e);
+        }
+    }
+
+    /*
+     * Types are few per archetype, so a linear search beats hashing.
+     */
+    int columnIndex(Class<?> type) {
+        for (int i = 0; i < types.length; i++) {
+            if (types[i] == type) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,75 @@
+package bricker.ecs;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+/**
+ * A GameObject that shows an entity of a {@link World}, so entities can be drawn and collided
+ * with like any other object. The entity owns the position: every update, the object is moved
+ * to the entity's {@link Position}, so the world should be updated before the game objects.
+ * Anything else that moves the object (like the collision resolver) is overridden on the next
+ * update.
+ */
+public class EntityGameObject extends GameObject {
+    private final World world;
+    private final int entity;
+    // the archetype the entity was last seen in, and the column of Position there (or -1)
+    private Archetype archetype;
+    private int positionColumn = -1;
+
+    /**
+     * Constructor for the object.
+     * @param world      The world of the entity.
+     * @param entity     The entity to show. If it has no Position, the object starts at (0,0).
+     * @param dimensions Size of the object.
+     * @param renderable The renderable representing the object. Can be null.
+     */
+    public EntityGameObject(World world, int entity, Vector2 dimensions, Renderable renderable) {
+        super(Vector2.ZERO, dimensions, renderable);
+        this.world = world;
+        this.entity = entity;
+        syncPosition();
+    }
+
+    /**
+     * @return the entity the object shows.
+     */
+    public int entity() {
+        return entity;
+    }
+
+    /**
+     * @return the world of the entity.
+     */
+    public World world() {
+        return world;
+    }
+
+    /**
+     * Moves the object to the entity's position.
+     * @param deltaTime Time since last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        syncPosition();
+    }
+
+    /*
+     * Reads the entity's position straight from the columns of its archetype. The column is
+     * only looked up again when the entity moves to another archetype.
+     */
+    private void syncPosition() {
+        Archetype current = world.archetype(entity);
+        if (current != archetype) {
+            archetype = current;
+            positionColumn = current == null ? -1 : current.columnIndex(Position.class);
+        }
+        if (positionColumn >= 0) {
+            int row = world.row(entity);
+            transform().setTopLeftCorner(archetype.xColumn(positionColumn)[row],
+                    archetype.yColumn(positionColumn)[row]);
+        }
+    }
+}
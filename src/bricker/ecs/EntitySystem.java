@@ -0,0 +1,22 @@
+package bricker.ecs;
+
+/**
+ * Behavior that runs every frame over all the entities of a {@link World} that have some
+ * types of components. Instead of being called once per entity, a system is handed whole
+ * archetypes, and loops over their rows itself.
+ */
+public interface EntitySystem {
+    /**
+     * Read once, when the system is added to a world.
+     * @return the types of components an entity must have for the system to run on it.
+     */
+    Class<?>[] requiredComponents();
+
+    /**
+     * Runs the system on the entities of one archetype. Entities created or changed from here
+     * are only put in their archetypes once every system has run.
+     * @param archetype An archetype with all the required components.
+     * @param deltaTime Time since last frame.
+     */
+    void update(Archetype archetype, float deltaTime);
+}
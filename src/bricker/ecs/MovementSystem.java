@@ -0,0 +1,25 @@
+package bricker.ecs;
+
+/**
+ * Moves every entity with a {@link Position} and a {@link Velocity} by its velocity.
+ */
+public class MovementSystem implements EntitySystem {
+    private static final Class<?>[] REQUIRED = {Position.class, Velocity.class};
+
+    @Override
+    public Class<?>[] requiredComponents() {
+        return REQUIRED.clone();
+    }
+
+    @Override
+    public void update(Archetype archetype, float deltaTime) {
+        float[] x = archetype.xColumn(Position.class);
+        float[] y = archetype.yColumn(Position.class);
+        float[] velocityX = archetype.xColumn(Velocity.class);
+        float[] velocityY = archetype.yColumn(Velocity.class);
+        for (int row = 0; row < archetype.size(); row++) {
+            x[row] += velocityX[row] * deltaTime;
+            y[row] += velocityY[row] * deltaTime;
+        }
+    }
+}
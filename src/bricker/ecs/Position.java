@@ -0,0 +1,15 @@
+package bricker.ecs;
+
+/**
+ * The top-left corner of an entity, in window coordinates.
+ */
+public final class Position extends VectorComponent {
+    /**
+     * Constructor for the component.
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     */
+    public Position(float x, float y) {
+        super(x, y);
+    }
+}
@@ -0,0 +1,32 @@
+package bricker.ecs;
+
+/**
+ * A component made of two floats, like a {@link Position} or a {@link Velocity}.
+ * Archetypes don't keep these components as objects: each class of them gets two float
+ * columns, one of x and one of y (see {@link Archetype#xColumn}), which systems loop over
+ * directly. The objects only carry values into and out of a {@link World}: a component read
+ * with {@link World#getComponent} is a copy, and changing it changes nothing until it is
+ * given back with {@link World#addComponent}.
+ * <p>
+ * A subclass must be public, and have a public constructor that takes x and y.
+ */
+public abstract class VectorComponent {
+    /**
+     * The first value.
+     */
+    public float x;
+    /**
+     * The second value.
+     */
+    public float y;
+
+    /**
+     * Constructor for the component.
+     * @param x The first value.
+     * @param y The second value.
+     */
+    protected VectorComponent(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+}
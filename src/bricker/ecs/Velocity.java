@@ -0,0 +1,15 @@
+package bricker.ecs;
+
+/**
+ * The velocity of an entity, in pixels per second.
+ */
+public final class Velocity extends VectorComponent {
+    /**
+     * Constructor for the component.
+     * @param x The horizontal velocity.
+     * @param y The vertical velocity.
+     */
+    public Velocity(float x, float y) {
+        super(x, y);
+    }
+}
@@ -0,0 +1,357 @@
+package bricker.ecs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An opt-in store of entities and their components, for large numbers of simple objects
+ * that don't need to be GameObjects.
+ * An entity is just an int id. Its components are plain objects, keyed by their exact class;
+ * an entity has at most one component of each class. Entities with the same classes of
+ * components share an {@link Archetype}, where each class has a dense column (two float
+ * columns for a {@link VectorComponent}, like {@link Position}). Behavior lives
+ * in {@link EntitySystem}s, which {@link #update(float)} runs over every archetype that has
+ * the components they need, so a frame costs a loop per system and archetype instead of a
+ * chain of update calls per object.
+ * <p>
+ * Creating and destroying entities, and adding or removing components, changes archetypes.
+ * While the systems run, such changes are queued and applied, in order, once they are done.
+ * Ids of destroyed entities are given to new entities later.
+ */
+public class World {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Comparator<Class<?>> TYPE_ORDER = Comparator.comparing(Class::getName);
+
+    private final Map<Set<Class<?>>, Archetype> archetypesByTypes = new HashMap<>();
+    // in the order they were made, so systems visit them in a stable order
+    private final List<Archetype> archetypes = new ArrayList<>();
+    private final List<EntitySystem> systems = new ArrayList<>();
+    private final List<Class<?>[]> systemRequirements = new ArrayList<>();
+    // for each system, the archetypes it runs on
+    private final List<List<Archetype>> systemArchetypes = new ArrayList<>();
+    // for each entity id
+    private boolean[] isUsed = new boolean[INITIAL_CAPACITY];
+    private Archetype[] archetypeOf = new Archetype[INITIAL_CAPACITY];
+    private int[] rowOf = new int[INITIAL_CAPACITY];
+    private int[] freeIds = new int[INITIAL_CAPACITY];
+    private int freeIdCount;
+    private int nextId;
+    private int entityCount;
+    private boolean isUpdating;
+    private final List<Runnable> pendingChanges = new ArrayList<>();
+    // component types known to be storable (see Archetype.checkType)
+    private final Set<Class<?>> checkedTypes = new HashSet<>();
+
+    /**
+     * Creates an entity with the given components. While the systems run, the entity only
+     * gets its components once they are done.
+     * @param components The components, no two of the same class.
+     * @return the id of the new entity.
+     * @throws IllegalArgumentException if two components have the same class, or one is null,
+     *                                  or can't be stored (see {@link VectorComponent}).
+     */
+    public int createEntity(Object... components) {
+        Object[] copy = components.clone();
+        for (Class<?> type : typesOf(copy)) {
+            checkType(type);
+        }
+        int entity = freeIdCount > 0 ? freeIds[--freeIdCount] : nextId++;
+        ensureCapacity(entity);
+        isUsed[entity] = true;
+        entityCount++;
+        if (isUpdating) {
+            pendingChanges.add(() -> place(entity, copy));
+        } else {
+            place(entity, copy);
+        }
+        return entity;
+    }
+
+    /**
+     * Destroys an entity and drops its components.
+     * @return false if there is no such entity.
+     */
+    public boolean destroyEntity(int entity) {
+        if (!isAlive(entity)) {
+            return false;
+        }
+        if (isUpdating) {
+            pendingChanges.add(() -> destroyNow(entity));
+        } else {
+            destroyNow(entity);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the entity was created and not destroyed yet.
+     */
+    public boolean isAlive(int entity) {
+        return entity >= 0 && entity < nextId && isUsed[entity];
+    }
+
+    /**
+     * @return the number of entities alive.
+     */
+    public int entityCount() {
+        return entityCount;
+    }
+
+    /**
+     * @return the entity's component of the given class, or null if it has none. A
+     * {@link VectorComponent} is returned as a copy.
+     */
+    public <T> T getComponent(int entity, Class<T> type) {
+        Archetype archetype = isAlive(entity) ? archetypeOf[entity] : null;
+        if (archetype == null) {
+            return null;
+        }
+        int column = archetype.columnIndex(type);
+        return column < 0 ? null : type.cast(archetype.component(rowOf[entity], column));
+    }
+
+    /**
+     * Gives an entity a component. A component of the same class replaces the old one right
+     * away; any other moves the entity to another archetype.
+     * @throws IllegalArgumentException if there is no such entity, or the component is null
+     *                                  or can't be stored (see {@link VectorComponent}).
+     */
+    public void addComponent(int entity, Object component) {
+        checkAlive(entity);
+        if (component == null) {
+            throw new IllegalArgumentException("A component can't be null");
+        }
+        checkType(component.getClass());
+        Archetype archetype = archetypeOf[entity];
+        int column = archetype == null ? -1 : archetype.columnIndex(component.getClass());
+        if (column >= 0) {
+            archetype.setComponent(rowOf[entity], column, component);
+        } else if (isUpdating) {
+            pendingChanges.add(() -> addNow(entity, component));
+        } else {
+            addNow(entity, component);
+        }
+    }
+
+    /**
+     * Takes a component away from an entity, moving it to another archetype.
+     * @throws IllegalArgumentException if there is no such entity.
+     */
+    public void removeComponent(int entity, Class<?> type) {
+        checkAlive(entity);
+        if (isUpdating) {
+            pendingChanges.add(() -> removeNow(entity, type));
+        } else {
+            removeNow(entity, type);
+        }
+    }
+
+    /**
+     * Adds a system, to run after those already added.
+     */
+    public void addSystem(EntitySystem system) {
+        Class<?>[] required = system.requiredComponents().clone();
+        List<Archetype> matching = new ArrayList<>();
+        for (Archetype archetype : archetypes) {
+            if (archetype.hasAll(required)) {
+                matching.add(archetype);
+            }
+        }
+        systems.add(system);
+        systemRequirements.add(required);
+        systemArchetypes.add(matching);
+    }
+
+    /**
+     * Runs every system over the archetypes it needs, then applies the changes made meanwhile.
+     * @param deltaTime Time since last frame.
+     */
+    public void update(float deltaTime) {
+        isUpdating = true;
+        try {
+            for (int i = 0; i < systems.size(); i++) {
+                EntitySystem system = systems.get(i);
+                List<Archetype> matching = systemArchetypes.get(i);
+                for (int j = 0; j < matching.size(); j++) {
+                    if (matching.get(j).size() > 0) {
+                        system.update(matching.get(j), deltaTime);
+                    }
+                }
+            }
+        } finally {
+            isUpdating = false;
+        }
+        for (Runnable change : pendingChanges) {
+            change.run();
+        }
+        pendingChanges.clear();
+    }
+
+    /**
+     * @return the archetype of an entity, or null if it has none (yet).
+     */
+    Archetype archetype(int entity) {
+        return isAlive(entity) ? archetypeOf[entity] : null;
+    }
+
+    /**
+     * @return the row of an entity in its archetype.
+     */
+    int row(int entity) {
+        return rowOf[entity];
+    }
+
+    private void place(int entity, Object[] components) {
+        // the entity may have been destroyed before it was placed
+        if (!isUsed[entity] || archetypeOf[entity] != null) {
+            return;
+        }
+        Archetype archetype = archetypeFor(typesOf(components));
+        Class<?>[] types = archetype.types();
+        Object[] ordered = new Object[types.length];
+        for (Object component : components) {
+            ordered[archetype.columnIndex(component.getClass())] = component;
+        }
+        archetypeOf[entity] = archetype;
+        rowOf[entity] = archetype.add(entity, ordered);
+    }
+
+    private void destroyNow(int entity) {
+        if (!isUsed[entity]) {
+            return;
+        }
+        unplace(entity);
+        isUsed[entity] = false;
+        entityCount--;
+        if (freeIdCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeIdCount * 2);
+        }
+        freeIds[freeIdCount++] = entity;
+    }
+
+    private void addNow(int entity, Object component) {
+        if (!isUsed[entity]) {
+            return;
+        }
+        Archetype archetype = archetypeOf[entity];
+        int column = archetype == null ? -1 : archetype.columnIndex(component.getClass());
+        if (column >= 0) {
+            // a component of the same class was added in the meantime
+            archetype.setComponent(rowOf[entity], column, component);
+            return;
+        }
+        Object[] components = componentsOf(entity, null);
+        components = Arrays.copyOf(components, components.length + 1);
+        components[components.length - 1] = component;
+        moveTo(entity, components);
+    }
+
+    private void removeNow(int entity, Class<?> type) {
+        Archetype archetype = archetypeOf[entity];
+        if (!isUsed[entity] || archetype == null || !archetype.has(type)) {
+            return;
+        }
+        moveTo(entity, componentsOf(entity, type));
+    }
+
+    private void moveTo(int entity, Object[] components) {
+        unplace(entity);
+        place(entity, components);
+    }
+
+    /*
+     * The components of a placed entity, leaving out the one of the given class (if any).
+     */
+    private Object[] componentsOf(int entity, Class<?> excluded) {
+        Archetype archetype = archetypeOf[entity];
+        if (archetype == null) {
+            return new Object[0];
+        }
+        Class<?>[] types = archetype.types();
+        List<Object> components = new ArrayList<>(types.length);
+        for (int column = 0; column < types.length; column++) {
+            if (types[column] != excluded) {
+                components.add(archetype.component(rowOf[entity], column));
+            }
+        }
+        return components.toArray();
+    }
+
+    private void unplace(int entity) {
+        Archetype archetype = archetypeOf[entity];
+        if (archetype == null) {
+            return;
+        }
+        int moved = archetype.remove(rowOf[entity]);
+        if (moved >= 0) {
+            rowOf[moved] = rowOf[entity];
+        }
+        archetypeOf[entity] = null;
+    }
+
+    private Archetype archetypeFor(Class<?>[] types) {
+        Set<Class<?>> key = Set.of(types);
+        Archetype archetype = archetypesByTypes.get(key);
+        if (archetype == null) {
+            archetype = new Archetype(types);
+            archetypesByTypes.put(key, archetype);
+            archetypes.add(archetype);
+            for (int i = 0; i < systems.size(); i++) {
+                if (archetype.hasAll(systemRequirements.get(i))) {
+                    systemArchetypes.get(i).add(archetype);
+                }
+            }
+        }
+        return archetype;
+    }
+
+    /*
+     * The classes of the components, sorted so that equal sets always get the same column
+     * order.
+     */
+    private static Class<?>[] typesOf(Object[] components) {
+        Class<?>[] types = new Class<?>[components.length];
+        Set<Class<?>> seen = new HashSet<>();
+        for (int i = 0; i < components.length; i++) {
+            if (components[i] == null) {
+                throw new IllegalArgumentException("A component can't be null");
+            }
+            types[i] = components[i].getClass();
+            if (!seen.add(types[i])) {
+                throw new IllegalArgumentException(
+                        "Two components of class " + types[i].getSimpleName());
+            }
+        }
+        Arrays.sort(types, TYPE_ORDER);
+        return types;
+    }
+
+    private void checkType(Class<?> type) {
+        if (!checkedTypes.contains(type)) {
+            Archetype.checkType(type);
+            checkedTypes.add(type);
+        }
+    }
+
+    private void checkAlive(int entity) {
+        if (!isAlive(entity)) {
+            throw new IllegalArgumentException("No entity " + entity);
+        }
+    }
+
+    private void ensureCapacity(int entity) {
+        if (entity < isUsed.length) {
+            return;
+        }
+        int capacity = Math.max(isUsed.length * 2, entity + 1);
+        isUsed = Arrays.copyOf(isUsed, capacity);
+        archetypeOf = Arrays.copyOf(archetypeOf, capacity);
+        rowOf = Arrays.copyOf(rowOf, capacity);
+    }
+}
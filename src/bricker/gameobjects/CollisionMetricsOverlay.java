@@ -0,0 +1,57 @@
+package bricker.gameobjects;
+
+import bricker.collisions.BrickerGameObjectCollection;
+import bricker.collisions.CollisionMetrics;
+import danogl.GameObject;
+import danogl.gui.rendering.TextRenderable;
+import danogl.util.Vector2;
+
+import java.awt.Color;
+
+/**
+ * A text overlay showing the collision metrics of a BrickerGameObjectCollection: how many
+ * pairs went through each stage of collision detection in the last frame, and how long each
+ * phase took. The text is refreshed a few times a second, so it stays readable.
+ */
+public class CollisionMetricsOverlay extends GameObject {
+    private static final int FRAMES_PER_REFRESH = 15;
+    private static final int GAP_BETWEEN_LINES = 2;
+
+    private final BrickerGameObjectCollection collection;
+    private final TextRenderable textRenderable;
+    private int framesUntilRefresh;
+
+    /**
+     * Constructor for CollisionMetricsOverlay.
+     *
+     * @param topLeftCorner The top-left position of the overlay.
+     * @param lineDimensions The dimensions of a single line of text.
+     * @param collection    The collection whose metrics are shown. Metrics must be enabled
+     *                      for anything to be shown.
+     */
+    public CollisionMetricsOverlay(Vector2 topLeftCorner, Vector2 lineDimensions,
+                                   BrickerGameObjectCollection collection) {
+        super(topLeftCorner, lineDimensions, null);
+        this.collection = collection;
+        this.textRenderable = new TextRenderable("");
+        textRenderable.setColor(Color.white);
+        renderer().setRenderable(textRenderable);
+    }
+
+    /**
+     * Refreshes the text every few frames.
+     *
+     * @param deltaTime Time elapsed since last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        if (--framesUntilRefresh > 0) {
+            return;
+        }
+        framesUntilRefresh = FRAMES_PER_REFRESH;
+        CollisionMetrics metrics = collection.metrics();
+        textRenderable.setString(metrics == null ? "" : metrics.toString(),
+                TextRenderable.MultilineHandling.HEIGHT_IS_FOR_SINGLE_LINE, GAP_BETWEEN_LINES);
+    }
+}
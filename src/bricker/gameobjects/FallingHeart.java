@@ -1,5 +1,7 @@
 package bricker.gameobjects;
 
+import bricker.collisions.CollisionFilter;
+import bricker.main.Constants;
 import danogl.GameObject;
 import danogl.collisions.Collision;
 import danogl.collisions.GameObjectCollection;
@@ -11,7 +13,7 @@ import danogl.util.Vector2;
  * Represents a heart object that falls from a broken brick.
  * If the main paddle collects it, the player gains an extra life.
  */
-public class FallingHeart extends GameObject {
+public class FallingHeart extends GameObject implements CollisionFilter {
     private static final int MAX_LIVES = 4;
     private static final Vector2 HEART_DIRECTION = new Vector2(0, 100);
 
@@ -41,12 +43,45 @@ public class FallingHeart extends GameObject {
         this.lifeCounter = lifeCounter;
         this.mainPaddle = mainPaddle;
         this.windowDimensions = windowDimensions;
+        startFalling();
+    }
 
-        // Set constant downward velocity (100 pixels per second)
-        // This ensures the heart falls straight down.
+    /**
+     * Sets the heart's constant downward velocity (100 pixels per second), so it falls
+     * straight down. Also used when a pooled heart is reused.
+     */
+    public void startFalling() {
         this.setVelocity(HEART_DIRECTION);
     }
 
+    /**
+     * @return the heart category.
+     */
+    @Override
+    public int collisionCategory() {
+        return Constants.HEART_CATEGORY;
+    }
+
+    /**
+     * Lets the collection filter out every pair of the heart and an object that isn't a
+     * paddle before shouldCollideWith is even asked.
+     * @return the paddle category.
+     */
+    @Override
+    public int collisionMask() {
+        return Constants.PADDLE_CATEGORY;
+    }
+
+    /**
+     * The heart is only collected, never bounced, so it only needs to know when it starts
+     * overlapping the paddle.
+     * @return true.
+     */
+    @Override
+    public boolean isSensor() {
+        return true;
+    }
+
     /**
      * Determines which objects the heart should collide with.
      * <p>
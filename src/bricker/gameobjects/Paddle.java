@@ -1,5 +1,7 @@
 package bricker.gameobjects;
 
+import bricker.collisions.CollisionFilter;
+import bricker.main.Constants;
 import danogl.GameObject;
 import danogl.gui.UserInputListener;
 import danogl.gui.rendering.Renderable;
@@ -13,7 +15,7 @@ import java.awt.event.KeyEvent;
  * and is constrained within specific horizontal boundaries (minX and maxX).
  * @author Nehorai Amrusi, Harel Pogoda
  */
-public class Paddle extends GameObject {
+public class Paddle extends GameObject implements CollisionFilter {
 
     static final int PADDLE_WIDTH = 100;
     static final int PADDLE_HEIGHT = 15;
@@ -42,33 +44,44 @@ public class Paddle extends GameObject {
         this.inputListener = inputListener;
     }
 
+    /**
+     * Puts paddles in their own collision category, so that objects that only care about
+     * paddles can filter everything else out.
+     * @return the paddle category.
+     */
+    @Override
+    public int collisionCategory() {
+        return Constants.PADDLE_CATEGORY;
+    }
+
     /**
      * Updates the paddle's state.
      * Checks for left/right keyboard input to set velocity and ensures the paddle
      * does not move beyond the defined left and right boundaries.
+     * The paddle's transform is changed in place, so a frame allocates no vectors.
      *
      * @param deltaTime The time elapsed, in seconds, since the last frame.
      */
     @Override
     public void update(float deltaTime) {
         super.update(deltaTime);
-        Vector2 movementDir = Vector2.ZERO;
+        float movementDirX = 0;
         if(inputListener.isKeyPressed(KeyEvent.VK_LEFT)) {
-            movementDir = movementDir.add(Vector2.LEFT);
+            movementDirX += Vector2.LEFT.x();
         }
         if(inputListener.isKeyPressed(KeyEvent.VK_RIGHT)) {
-            movementDir = movementDir.add(Vector2.RIGHT);
+            movementDirX += Vector2.RIGHT.x();
         }
-        setVelocity(movementDir.mult(MOVEMENT_SPEED));
+        transform().setVelocity(movementDirX * MOVEMENT_SPEED, 0);
 
         // Checking the paddle doesn't leave the screen
         float topLeftX = getTopLeftCorner().x();
 
         if (topLeftX < leftBoundary) {
-            setTopLeftCorner(new Vector2(leftBoundary, getTopLeftCorner().y()));
+            transform().setTopLeftCornerX(leftBoundary);
         }
         else if (topLeftX + getDimensions().x() > rightBoundary) {
-            setTopLeftCorner(new Vector2(rightBoundary - getDimensions().x(), getTopLeftCorner().y()));
+            transform().setTopLeftCornerX(rightBoundary - getDimensions().x());
         }
     }
 }
@@ -0,0 +1,46 @@
+package bricker.gameobjects;
+
+import danogl.collisions.GameObjectCollection;
+import danogl.gui.Sound;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+/**
+ * A small extra ball, released by a brick. Unlike the main ball, losing a puck costs no
+ * life: once it falls below the window, it removes itself from the game.
+ */
+public class Puck extends Ball {
+    private final GameObjectCollection gameObjects;
+    private final Vector2 windowDimensions;
+
+    /**
+     * Constructor for the puck.
+     *
+     * @param topLeftCorner    Position of the puck, in window coordinates (pixels).
+     * @param dimensions       Width and height in window coordinates.
+     * @param renderable       The image of the puck.
+     * @param collisionSound   The sound played when the puck hits something.
+     * @param gameObjects      The collection of all game objects (used to remove the puck).
+     * @param windowDimensions The dimensions of the window, below which the puck is lost.
+     */
+    public Puck(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
+                Sound collisionSound, GameObjectCollection gameObjects,
+                Vector2 windowDimensions) {
+        super(topLeftCorner, dimensions, renderable, collisionSound);
+        this.gameObjects = gameObjects;
+        this.windowDimensions = windowDimensions;
+    }
+
+    /**
+     * Updates the puck, and removes it from the game once it falls below the window.
+     *
+     * @param deltaTime The time elapsed since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        if (getTopLeftCorner().y() > windowDimensions.y()) {
+            gameObjects.removeGameObject(this);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package bricker.gameobjects;
+
+import bricker.collisions.TileMapCollider;
+import danogl.GameObject;
+import danogl.components.GameObjectPhysics;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * A grid of tiles, as a single immovable object. Grid-shaped content (walls, platforms,
+ * levels) doesn't need an object per tile: the tiles are ints in one array, drawn with a
+ * palette of renderables indexed by tile, and collisions are answered by the tiles under the
+ * other object (see {@link TileMapCollider}).
+ * <p>
+ * The grid is drawn in square chunks of tiles. Each chunk is drawn once into an image, and
+ * only drawn again (into the same image) after one of its tiles changes; chunks with no
+ * tiles have no image. Chunks outside the clip of the graphics are skipped, and a changed
+ * chunk is only redrawn once it is visible. A frame therefore costs an image per visible
+ * non-empty chunk, and changing a tile costs the redrawing of its chunk. Tile renderables are
+ * drawn once per change, so animated renderables don't animate, and the grid is never rotated.
+ */
+public class TileMap extends GameObject {
+    private static final int CHUNK_TILES = 16;
+
+    private final TileMapCollider collider;
+    private final Renderable[] palette;
+    private final int tilePixelWidth;
+    private final int tilePixelHeight;
+    private final int chunkColumns;
+    private final int chunkRows;
+    private final BufferedImage[] chunkImages;
+    private final boolean[] isChunkDirty;
+
+    /**
+     * Constructor for the tile map. All the tiles start empty.
+     * @param topLeftCorner  Position of the map's top left corner.
+     * @param tileDimensions Size of a single tile.
+     * @param columns        Number of columns of tiles.
+     * @param rows           Number of rows of tiles.
+     * @param palette        The renderable of each tile: tile i is drawn with palette[i].
+     *                       Entry {@link TileMapCollider#EMPTY} is never drawn, and a null
+     *                       entry makes a solid tile that isn't drawn.
+     */
+    public TileMap(Vector2 topLeftCorner, Vector2 tileDimensions, int columns, int rows,
+                   Renderable[] palette) {
+        super(topLeftCorner, new Vector2(tileDimensions.x() * columns,
+                tileDimensions.y() * rows), null);
+        this.collider = new TileMapCollider(columns, rows);
+        this.palette = palette.clone();
+        this.tilePixelWidth = Math.max((int) Math.ceil(tileDimensions.x()), 1);
+        this.tilePixelHeight = Math.max((int) Math.ceil(tileDimensions.y()), 1);
+        this.chunkColumns = (columns + CHUNK_TILES - 1) / CHUNK_TILES;
+        this.chunkRows = (rows + CHUNK_TILES - 1) / CHUNK_TILES;
+        this.chunkImages = new BufferedImage[chunkColumns * chunkRows];
+        this.isChunkDirty = new boolean[chunkColumns * chunkRows];
+        physics().setCollider(collider);
+        physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
+        physics().preventIntersectionsFromDirection(Vector2.ZERO);
+        renderer().setRenderable(this::renderChunks);
+    }
+
+    /**
+     * @return the number of columns of tiles.
+     */
+    public int columns() {
+        return collider.columns();
+    }
+
+    /**
+     * @return the number of rows of tiles.
+     */
+    public int rows() {
+        return collider.rows();
+    }
+
+    /**
+     * @return the tile in the given column and row.
+     */
+    public int tileAt(int column, int row) {
+        return collider.tileAt(column, row);
+    }
+
+    /**
+     * Replaces the tile in the given column and row. Only its chunk is drawn again.
+     * @return true if the tile changed.
+     */
+    public boolean setTile(int column, int row, int tile) {
+        if (tile < 0 || tile >= palette.length) {
+            throw new IllegalArgumentException("tile " + tile + " is not in the palette");
+        }
+        if (!collider.setTile(column, row, tile)) {
+            return false;
+        }
+        isChunkDirty[(row / CHUNK_TILES) * chunkColumns + column / CHUNK_TILES] = true;
+        return true;
+    }
+
+    /**
+     * @return the column of tiles a world x coordinate falls in. May be outside the map.
+     */
+    public int columnAt(float x) {
+        return (int) Math.floor((x - getTopLeftCorner().x()) * columns() / getDimensions().x());
+    }
+
+    /**
+     * @return the row of tiles a world y coordinate falls in. May be outside the map.
+     */
+    public int rowAt(float y) {
+        return (int) Math.floor((y - getTopLeftCorner().y()) * rows() / getDimensions().y());
+    }
+
+    /*
+     * Draws the images of the chunks, scaled to where the map is drawn, redrawing the chunks
+     * that changed first.
+     */
+    private void renderChunks(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                              double degreesCounterClockwise,
+                              boolean isFlippedHorizontally, boolean isFlippedVertically,
+                              double opaqueness) {
+        if (opaqueness <= 0) {
+            return;
+        }
+        Composite composite = g.getComposite();
+        if (opaqueness < 1) {
+            g.setComposite(AlphaComposite.getInstance(
+                    AlphaComposite.SRC_OVER, (float) opaqueness));
+        }
+        float pixelsPerColumn = dimensions.x() / columns();
+        float pixelsPerRow = dimensions.y() / rows();
+        float chunkWidth = pixelsPerColumn * CHUNK_TILES;
+        float chunkHeight = pixelsPerRow * CHUNK_TILES;
+        int firstChunkColumn = 0, lastChunkColumn = chunkColumns - 1;
+        int firstChunkRow = 0, lastChunkRow = chunkRows - 1;
+        Rectangle clip = g.getClipBounds();
+        if (clip != null) {
+            firstChunkColumn = Math.max(
+                    (int) Math.floor((clip.x - topLeftCorner.x()) / chunkWidth), 0);
+            lastChunkColumn = Math.min((int) Math.floor(
+                    (clip.x + clip.width - topLeftCorner.x()) / chunkWidth), chunkColumns - 1);
+            firstChunkRow = Math.max(
+                    (int) Math.floor((clip.y - topLeftCorner.y()) / chunkHeight), 0);
+            lastChunkRow = Math.min((int) Math.floor(
+                    (clip.y + clip.height - topLeftCorner.y()) / chunkHeight), chunkRows - 1);
+        }
+        for (int chunkRow = firstChunkRow; chunkRow <= lastChunkRow; chunkRow++) {
+            for (int chunkColumn = firstChunkColumn; chunkColumn <= lastChunkColumn;
+                 chunkColumn++) {
+                int chunk = chunkRow * chunkColumns + chunkColumn;
+                if (isChunkDirty[chunk]) {
+                    chunkImages[chunk] = drawChunk(chunkColumn, chunkRow, chunkImages[chunk]);
+                    isChunkDirty[chunk] = false;
+                }
+                BufferedImage image = chunkImages[chunk];
+                if (image == null) {
+                    continue;
+                }
+                int firstColumn = chunkColumn * CHUNK_TILES;
+                int firstRow = chunkRow * CHUNK_TILES;
+                // rounding both edges keeps neighboring chunks from leaving gaps
+                int left = Math.round(topLeftCorner.x() + firstColumn * pixelsPerColumn);
+                int top = Math.round(topLeftCorner.y() + firstRow * pixelsPerRow);
+                int right = Math.round(topLeftCorner.x()
+                        + (firstColumn + image.getWidth() / tilePixelWidth) * pixelsPerColumn);
+                int bottom = Math.round(topLeftCorner.y()
+                        + (firstRow + image.getHeight() / tilePixelHeight) * pixelsPerRow);
+                g.drawImage(image, left, top, right - left, bottom - top, null);
+            }
+        }
+        g.setComposite(composite);
+    }
+
+    /*
+     * Draws the tiles of a chunk into its previous image (cleared first), or into a new one
+     * if it had none. Returns null if the chunk has no tiles to draw.
+     */
+    private BufferedImage drawChunk(int chunkColumn, int chunkRow, BufferedImage previous) {
+        int firstColumn = chunkColumn * CHUNK_TILES;
+        int firstRow = chunkRow * CHUNK_TILES;
+        int lastColumn = Math.min(firstColumn + CHUNK_TILES, columns()) - 1;
+        int lastRow = Math.min(firstRow + CHUNK_TILES, rows()) - 1;
+        BufferedImage image = null;
+        Graphics2D g = null;
+        Vector2 tileDimensions = new Vector2(tilePixelWidth, tilePixelHeight);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                Renderable renderable = palette[collider.tileAt(column, row)];
+                if (collider.tileAt(column, row) == TileMapCollider.EMPTY || renderable == null) {
+                    continue;
+                }
+                if (image == null) {
+                    image = previous != null ? previous : new BufferedImage(
+                            (lastColumn - firstColumn + 1) * tilePixelWidth,
+                            (lastRow - firstRow + 1) * tilePixelHeight,
+                            BufferedImage.TYPE_INT_ARGB);
+                    g = image.createGraphics();
+                    if (image == previous) {
+                        g.setComposite(AlphaComposite.Clear);
+                        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+                        g.setComposite(AlphaComposite.SrcOver);
+                    }
+                }
+                renderable.render(g, new Vector2((column - firstColumn) * tilePixelWidth,
+                        (row - firstRow) * tilePixelHeight), tileDimensions);
+            }
+        }
+        if (g != null) {
+            g.dispose();
+        }
+        return image;
+    }
+}
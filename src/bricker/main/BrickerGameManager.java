@@ -2,7 +2,10 @@ package bricker.main;
 
 import bricker.brick_strategies.BrickStrategiesFactory;
 import bricker.brick_strategies.CollisionStrategy;
+import bricker.collisions.BrickerGameObjectCollection;
+import bricker.collisions.SpatialHashBroadphase;
 import bricker.gameobjects.Brick;
+import bricker.gameobjects.CollisionMetricsOverlay;
 import danogl.GameManager;
 import danogl.collisions.Layer;
 import danogl.components.CoordinateSpace;
@@ -63,6 +66,11 @@ public class BrickerGameManager extends GameManager{
     private static final float LIVES_SPACING = 20f;
     private static final float NUMERIC_COUNTER_SIZE = 25f;
     private static final int BEHAVIORS_ALLOWED = 3;
+    private static final float COLLISION_CELL_SIZE = 64f;
+    private static final int SLEEP_DELAY_FRAMES = 30;
+    private static final int METRICS_KEY = KeyEvent.VK_M;
+    private static final Vector2 METRICS_POSITION = new Vector2(10, 10);
+    private static final Vector2 METRICS_LINE_DIMENSIONS = new Vector2(400, 14);
 
 
     private Vector2 windowDimensions;
@@ -77,6 +85,8 @@ public class BrickerGameManager extends GameManager{
     private Counter lifeCounter;
     private final Brick[][] brickGrid;
     private GameObject mainPaddle;
+    private BrickerGameObjectCollection collisionCollection;
+    private CollisionMetricsOverlay metricsOverlay;
 
     /**
      * Constructs a new BrickerGameManager instance.
@@ -133,6 +143,7 @@ public class BrickerGameManager extends GameManager{
         this.windowController = windowController;
 
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
+        createGameObjectCollection();
         this.windowDimensions = windowController.getWindowDimensions();
         this.imageReader = imageReader;
         this.soundReader = soundReader;
@@ -149,6 +160,33 @@ public class BrickerGameManager extends GameManager{
     }
 
 
+    /*
+     * Replaces the library's game-object collection with one that uses a spatial hash grid
+     * to find colliding pairs, instead of comparing every ball with every brick. It also
+     * puts idle objects to sleep, sweeps fast balls so a slow frame can't carry them through
+     * a brick or a wall, and buffers the collision callbacks until detection is over.
+     */
+    private void createGameObjectCollection() {
+        BrickerGameObjectCollection collection =
+                new BrickerGameObjectCollection(windowController.messages());
+        collection.setBroadphase(new SpatialHashBroadphase(COLLISION_CELL_SIZE));
+        // the walls are in the default layer but never move, so once asleep they are no
+        // longer paired with each other or with an idle paddle; the only callbacks this can
+        // drop are onCollisionStay between two resting objects, which no object here uses
+        collection.setSleepDelay(SLEEP_DELAY_FRAMES);
+        // at the normal framerate no ball moves its own size in a frame, so this only
+        // changes anything when frames are slow
+        collection.setContinuousCollisions(true);
+        // brick strategies add and remove objects, and break neighboring bricks, from their
+        // callbacks; calling those after detection keeps them out of the detection loop. The
+        // callbacks and their order stay the same, since changes to the collection only
+        // apply on the next update anyway
+        collection.setBufferedEvents(true);
+        setGameObjectsCollection(collection);
+        collisionCollection = collection;
+        metricsOverlay = null;
+    }
+
     /*
      * Initializes the visual representations of the player's remaining lives.
      * This method sets up both the graphical counter (hearts) and the numeric counter.
@@ -196,12 +234,18 @@ public class BrickerGameManager extends GameManager{
     public void update(float deltaTime) {
         super.update(deltaTime);
 
+        if (inputListener.wasKeyPressedThisFrame(METRICS_KEY)) {
+            toggleCollisionMetrics();
+        }
+
         if (brickCounter.value() <= 0 || inputListener.isKeyPressed(KeyEvent.VK_W)) {
             handleGameEnd(WIN_MESSAGE);
             return;
         }
 
-        if (ball.getCenter().y() > windowController.getWindowDimensions().y()) {
+        // getCenter() would allocate a vector every frame
+        float ballCenterY = ball.getTopLeftCorner().y() + ball.getDimensions().y() * 0.5f;
+        if (ballCenterY > windowController.getWindowDimensions().y()) {
             lifeCounter.decrement();
 
             if (lifeCounter.value() > 0) {
@@ -213,6 +257,23 @@ public class BrickerGameManager extends GameManager{
         }
     }
 
+    /*
+     * Shows or hides the collision metrics overlay. Metrics are only collected while it is
+     * shown.
+     */
+    private void toggleCollisionMetrics() {
+        if (metricsOverlay == null) {
+            collisionCollection.setMetricsEnabled(true);
+            metricsOverlay = new CollisionMetricsOverlay(
+                    METRICS_POSITION, METRICS_LINE_DIMENSIONS, collisionCollection);
+            gameObjects().addGameObject(metricsOverlay, Layer.UI);
+        } else {
+            collisionCollection.setMetricsEnabled(false);
+            gameObjects().removeGameObject(metricsOverlay, Layer.UI);
+            metricsOverlay = null;
+        }
+    }
+
     /*
      * A handler for ending the game.
      * @param prompt A prompt to show the user when the game ends.
@@ -16,4 +16,15 @@ public class Constants {
      * so that collision-handling functions can check for this tag.
      */
     public static final String NO_COLLIDE_TAG = "transparent";
+
+    /**
+     * The collision category of paddles, so objects can be filtered to only collide with
+     * them (see bricker.collisions.CollisionFilter).
+     */
+    public static final int PADDLE_CATEGORY = 1 << 1;
+
+    /**
+     * The collision category of falling hearts.
+     */
+    public static final int HEART_CATEGORY = 1 << 2;
 }